@@ -0,0 +1,53 @@
+package com.pavila.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pavila.model.dto.ProductDTOResponse;
+import com.pavila.model.entity.Product;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+final class BenchmarkFixtures {
+
+    static final LocalDateTime CREATED_DATE = LocalDateTime.of(2024, 8, 10, 12, 0, 0);
+
+    private BenchmarkFixtures() {
+    }
+
+    static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json().build();
+    }
+
+    static Product product(long id) {
+        return Product.builder()
+                .id(id)
+                .name("Product " + id)
+                .price(BigDecimal.valueOf(1999 + id, 2))
+                .available(id % 2 == 0)
+                .createdDate(CREATED_DATE)
+                .lastModifiedDate(CREATED_DATE.plusMinutes(id))
+                .build();
+    }
+
+    static ProductDTOResponse productResponse(long id) {
+        return ProductDTOResponse.builder()
+                .id(id)
+                .name("Product " + id)
+                .price(BigDecimal.valueOf(1999 + id, 2))
+                .available(id % 2 == 0)
+                .createdDate(CREATED_DATE)
+                .lastModifiedDate(CREATED_DATE.plusMinutes(id))
+                .build();
+    }
+
+    static List<ProductDTOResponse> productResponses(int size) {
+        List<ProductDTOResponse> products = new ArrayList<>(size);
+        for (int i = 1; i <= size; i++) {
+            products.add(productResponse(i));
+        }
+        return products;
+    }
+}
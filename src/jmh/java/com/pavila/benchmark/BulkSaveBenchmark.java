@@ -0,0 +1,95 @@
+package com.pavila.benchmark;
+
+import com.pavila.ApiProductApplication;
+import com.pavila.model.dto.ProductBulkDTOResponse;
+import com.pavila.model.dto.ProductDTORequest;
+import com.pavila.repository.ProductRepository;
+import com.pavila.service.ProductService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rows per second of the batched bulk insert against one {@link ProductService#save} call per row.
+ * <p>
+ * Both run through the service against the in-memory H2 database of the {@code embedded} profile, so the gap only
+ * reflects transactions, flushes and statement batching; against MySQL each saved round trip also removes network
+ * latency. The table is emptied after every iteration so both variants insert into a table of the same size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 30, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(1)
+public class BulkSaveBenchmark {
+
+    private static final int ROWS = 1000;
+
+    private ConfigurableApplicationContext context;
+    private ProductService productService;
+    private ProductRepository productRepository;
+    private List<ProductDTORequest> requests;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(ApiProductApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("embedded")
+                .properties("logging.level.root=warn")
+                .run();
+        productService = context.getBean(ProductService.class);
+        productRepository = context.getBean(ProductRepository.class);
+        requests = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            requests.add(ProductDTORequest.builder()
+                    .name("Product " + i)
+                    .price(BigDecimal.valueOf(1999 + i, 2))
+                    .available(true)
+                    .build());
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void emptyTable() {
+        productRepository.deleteAllInBatch();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public ProductBulkDTOResponse bulkSave() {
+        return productService.saveAll(requests);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void saveOneByOne(Blackhole blackhole) {
+        for (ProductDTORequest request : requests) {
+            blackhole.consume(productService.save(request));
+        }
+    }
+}
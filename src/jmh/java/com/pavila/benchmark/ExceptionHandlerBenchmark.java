@@ -0,0 +1,99 @@
+package com.pavila.benchmark;
+
+import com.pavila.exception.GlobalExceptionHandler;
+import com.pavila.exception.ObjectNotFoundException;
+import com.pavila.model.dto.ApiError;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the not-found path of a product lookup: throwing the exception from {@code callDepth} frames below the
+ * handler and building the 404 response. {@code throwAndHandleStackTraceNotFound} throws an exception that still
+ * fills in its stack trace, as {@link ObjectNotFoundException} did before it became stackless.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExceptionHandlerBenchmark {
+
+    @Param({"1", "100"})
+    private int callDepth;
+
+    private GlobalExceptionHandler exceptionHandler;
+    private MockHttpServletRequest request;
+    private ObjectNotFoundException notFoundException;
+    private IllegalStateException unexpectedException;
+
+    @Setup
+    public void setUp() {
+        exceptionHandler = new GlobalExceptionHandler(new SimpleMeterRegistry());
+        request = new MockHttpServletRequest("GET", "/api/v1/products/404");
+        notFoundException = new ObjectNotFoundException("Product not found by id 404");
+        unexpectedException = new IllegalStateException("Unexpected error");
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiError> handleNotFound() {
+        return exceptionHandler.handleObjectNotFoundException(notFoundException, request);
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiError> throwAndHandleNotFound() {
+        try {
+            throwAt(callDepth, false);
+            return null;
+        } catch (ObjectNotFoundException e) {
+            return exceptionHandler.handleObjectNotFoundException(e, request);
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiError> throwAndHandleStackTraceNotFound() {
+        try {
+            throwAt(callDepth, true);
+            return null;
+        } catch (StackTraceNotFoundException e) {
+            return exceptionHandler.handleException(e, request);
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<ApiError> handleUnexpected() {
+        return exceptionHandler.handleException(unexpectedException, request);
+    }
+
+    private static void throwAt(int depth, boolean withStackTrace) {
+        if (depth > 1) {
+            throwAt(depth - 1, withStackTrace);
+            return;
+        }
+        if (withStackTrace) {
+            throw new StackTraceNotFoundException("Product not found by id 404");
+        }
+        throw new ObjectNotFoundException("Product not found by id 404");
+    }
+
+    private static class StackTraceNotFoundException extends RuntimeException {
+
+        StackTraceNotFoundException(String message) {
+            super(message);
+        }
+    }
+}
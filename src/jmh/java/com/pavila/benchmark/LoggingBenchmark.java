@@ -0,0 +1,116 @@
+package com.pavila.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.OutputStreamAppender;
+import com.pavila.logging.SampledRequestTurboFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.MDC;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the per-request logging of the product lookup before and after the move to sampled debug logs, with the
+ * synchronous console appender and with the asynchronous appender used in {@code logback-spring.xml}. Log lines are
+ * written to a discarding stream so only the formatting and hand-off cost is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class LoggingBenchmark {
+
+    private static final String PATTERN =
+            "%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} level=%level thread=%thread logger=%logger{40} request_id=%X{request_id:--} %msg%n%throwable";
+
+    @Param({"sync", "async"})
+    private String appender;
+
+    private LoggerContext loggerContext;
+    private Logger logger;
+    private final Long productId = 42L;
+    private final String productName = "MacBook Pro";
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        loggerContext = new LoggerContext();
+        loggerContext.setMDCAdapter(MDC.getMDCAdapter());
+        loggerContext.addTurboFilter(new SampledRequestTurboFilter());
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(loggerContext);
+        encoder.setPattern(PATTERN);
+        encoder.start();
+
+        OutputStreamAppender<ILoggingEvent> output = new OutputStreamAppender<>();
+        output.setContext(loggerContext);
+        output.setEncoder(encoder);
+        output.setOutputStream(OutputStream.nullOutputStream());
+        output.start();
+
+        Appender<ILoggingEvent> rootAppender = output;
+        if ("async".equals(appender)) {
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(loggerContext);
+            async.setQueueSize(8192);
+            async.setNeverBlock(true);
+            async.setIncludeCallerData(false);
+            async.addAppender(output);
+            async.start();
+            rootAppender = async;
+        }
+
+        Logger root = loggerContext.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        root.setLevel(ch.qos.logback.classic.Level.INFO);
+        root.addAppender(rootAppender);
+        logger = loggerContext.getLogger("com.pavila.service.ProductServiceImpl");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        loggerContext.stop();
+    }
+
+    @Benchmark
+    public void perCallInfoLogging() {
+        logger.info("Attempting to find product with ID: {}", productId);
+        logger.info("Product found: ID = {}, Name = {}", productId, productName);
+        logger.info("Returning product response for ID: {}", productId);
+    }
+
+    @Benchmark
+    public void unsampledDebugLogging() {
+        logger.debug("Product found with ID: {}", productId);
+    }
+
+    @Benchmark
+    public void sampledDebugLogging() {
+        MDC.put(SampledRequestTurboFilter.SAMPLED_KEY, "true");
+        try {
+            logger.debug("Product found with ID: {}", productId);
+        } finally {
+            MDC.remove(SampledRequestTurboFilter.SAMPLED_KEY);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.pavila.benchmark;
+
+import com.pavila.mapper.ProductMapper;
+import com.pavila.model.dto.ProductDTOResponse;
+import com.pavila.model.entity.Product;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductMappingBenchmark {
+
+    private Product product;
+    private List<Product> products;
+
+    @Setup
+    public void setUp() {
+        product = BenchmarkFixtures.product(1);
+        products = LongStream.rangeClosed(1, 100).mapToObj(BenchmarkFixtures::product).toList();
+    }
+
+    @Benchmark
+    public ProductDTOResponse mapOne() {
+        return ProductMapper.toResponse(product);
+    }
+
+    @Benchmark
+    public List<ProductDTOResponse> mapHundred() {
+        return products.stream().map(ProductMapper::toResponse).toList();
+    }
+}
@@ -0,0 +1,64 @@
+package com.pavila.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.pavila.model.dto.ProductDTORequest;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProductRequestBenchmark {
+
+    private static final byte[] VALID_BODY = "{\"name\": \"MackBook Air\", \"price\": 11000, \"available\": true}"
+            .getBytes(StandardCharsets.UTF_8);
+    private static final byte[] INVALID_BODY = "{\"name\": \"\", \"price\": 0}"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private ObjectReader reader;
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+
+    @Setup
+    public void setUp() {
+        reader = BenchmarkFixtures.objectMapper().readerFor(ProductDTORequest.class);
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        validator = validatorFactory.getValidator();
+    }
+
+    @TearDown
+    public void tearDown() {
+        validatorFactory.close();
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<ProductDTORequest>> deserializeAndValidate() throws IOException {
+        return validator.validate(reader.<ProductDTORequest>readValue(VALID_BODY));
+    }
+
+    @Benchmark
+    public Set<ConstraintViolation<ProductDTORequest>> deserializeAndValidateInvalid() throws IOException {
+        return validator.validate(reader.<ProductDTORequest>readValue(INVALID_BODY));
+    }
+}
@@ -0,0 +1,56 @@
+package com.pavila.benchmark.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+final class EndpointStats {
+
+    private final Histogram latencies = new ConcurrentHistogram(TimeUnit.MINUTES.toMicros(1), 3);
+    private final Map<Integer, LongAdder> statuses = new ConcurrentHashMap<>();
+    private final LongAdder errors = new LongAdder();
+
+    void record(long latencyNanos, int status) {
+        latencies.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), latencies.getHighestTrackableValue()));
+        statuses.computeIfAbsent(status, key -> new LongAdder()).increment();
+        if (status >= 500) {
+            errors.increment();
+        }
+    }
+
+    void recordFailure(long latencyNanos) {
+        record(latencyNanos, 0);
+        errors.increment();
+    }
+
+    Map<String, Object> summary(double elapsedSeconds) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("requests", latencies.getTotalCount());
+        summary.put("errors", errors.sum());
+        summary.put("throughput_rps", round(latencies.getTotalCount() / elapsedSeconds));
+        summary.put("p50_ms", millis(latencies.getValueAtPercentile(50)));
+        summary.put("p90_ms", millis(latencies.getValueAtPercentile(90)));
+        summary.put("p99_ms", millis(latencies.getValueAtPercentile(99)));
+        summary.put("p999_ms", millis(latencies.getValueAtPercentile(99.9)));
+        summary.put("max_ms", millis(latencies.getMaxValue()));
+        Map<String, Long> statusCounts = new LinkedHashMap<>();
+        statuses.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> statusCounts.put(String.valueOf(entry.getKey()), entry.getValue().sum()));
+        summary.put("statuses", statusCounts);
+        return summary;
+    }
+
+    private static double millis(long micros) {
+        return round(micros / 1000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+}
@@ -0,0 +1,211 @@
+package com.pavila.benchmark.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-model load generator for the product endpoints.
+ * <p>
+ * Starts the application in a separate JVM ({@link LoadServer}) against the in-memory H2 database of the
+ * {@code embedded} profile, seeds the catalog through the bulk endpoint and then sends a weighted mix of
+ * {@link LoadOperation}s at a fixed arrival rate. Latency is measured from the intended send time, so a slow server
+ * is not hidden by the generator backing off. The client completes its requests on a fixed pool of platform
+ * threads, so whether the server runs on virtual threads does not change how the client is scheduled, and client
+ * and server never share a carrier pool. The per-client rate limit is turned off because every request comes from
+ * the same address; concurrency shedding stays on and its 503 responses are counted as errors.
+ * <p>
+ * Options are passed as {@code key=value} arguments: {@code catalog-size} (10000), {@code rate} requests per
+ * second (200), {@code duration-seconds} (30), {@code warmup-seconds} (5), {@code virtual-threads} (false),
+ * {@code client-threads} (4) and {@code output} (target/load-result.json).
+ */
+public final class LoadHarness {
+
+    private static final int SEED_BATCH_SIZE = 1000;
+
+    private LoadHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        long catalogSize = Long.parseLong(options.getOrDefault("catalog-size", "10000"));
+        int rate = Integer.parseInt(options.getOrDefault("rate", "200"));
+        int durationSeconds = Integer.parseInt(options.getOrDefault("duration-seconds", "30"));
+        int warmupSeconds = Integer.parseInt(options.getOrDefault("warmup-seconds", "5"));
+        boolean virtualThreads = Boolean.parseBoolean(options.getOrDefault("virtual-threads", "false"));
+        int clientThreads = Integer.parseInt(options.getOrDefault("client-threads", "4"));
+        File output = new File(options.getOrDefault("output", "target/load-result.json"));
+
+        Process server = startServer(virtualThreads);
+        ExecutorService clientExecutor = Executors.newFixedThreadPool(clientThreads);
+        try {
+            int port = awaitPort(server);
+            URI baseUri = URI.create("http://localhost:" + port + "/api/v1/products");
+            HttpClient client = HttpClient.newBuilder().executor(clientExecutor).build();
+
+            seed(client, baseUri, catalogSize);
+            System.out.printf("Warming up for %d s at %d req/s%n", warmupSeconds, rate);
+            run(client, baseUri, catalogSize, rate, warmupSeconds);
+            System.out.printf("Measuring for %d s at %d req/s (virtual threads: %s)%n", durationSeconds, rate, virtualThreads);
+            Map<LoadOperation, EndpointStats> stats = run(client, baseUri, catalogSize, rate, durationSeconds);
+
+            report(stats, durationSeconds, catalogSize, rate, virtualThreads, clientThreads, output);
+        } finally {
+            clientExecutor.shutdownNow();
+            stopServer(server);
+        }
+    }
+
+    private static Process startServer(boolean virtualThreads) throws IOException {
+        String java = ProcessHandle.current().info().command().orElse("java");
+        return new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"),
+                LoadServer.class.getName(), String.valueOf(virtualThreads))
+                .redirectErrorStream(true)
+                .start();
+    }
+
+    // Reads the server output until it prints its port, the rest is forwarded so startup errors stay visible
+    private static int awaitPort(Process server) throws IOException, InterruptedException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(server.getInputStream(), StandardCharsets.UTF_8));
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            if (line.startsWith(LoadServer.PORT_PREFIX)) {
+                Thread forwarder = new Thread(() -> reader.lines().forEach(System.out::println), "load-server-output");
+                forwarder.setDaemon(true);
+                forwarder.start();
+                return Integer.parseInt(line.substring(LoadServer.PORT_PREFIX.length()));
+            }
+            System.out.println(line);
+        }
+        throw new IllegalStateException("The load server exited with status " + server.waitFor() + " before it started");
+    }
+
+    private static void stopServer(Process server) throws InterruptedException {
+        try {
+            server.getOutputStream().close();
+        } catch (IOException e) {
+            server.destroy();
+        }
+        if (!server.waitFor(30, TimeUnit.SECONDS)) {
+            server.destroyForcibly();
+        }
+    }
+
+    private static void seed(HttpClient client, URI baseUri, long catalogSize) throws IOException, InterruptedException {
+        System.out.printf("Seeding %d products%n", catalogSize);
+        for (long from = 1; from <= catalogSize; from += SEED_BATCH_SIZE) {
+            StringBuilder body = new StringBuilder("[");
+            for (long id = from; id < Math.min(from + SEED_BATCH_SIZE, catalogSize + 1); id++) {
+                if (id > from) {
+                    body.append(',');
+                }
+                body.append("{\"name\": \"Product ").append(id).append("\", \"price\": ").append(1 + id % 500).append('}');
+            }
+            body.append(']');
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUri + "/bulk"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                    .build();
+            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+            if (response.statusCode() != 201) {
+                throw new IllegalStateException("Seeding failed with status " + response.statusCode());
+            }
+        }
+    }
+
+    private static Map<LoadOperation, EndpointStats> run(HttpClient client, URI baseUri, long catalogSize,
+                                                         int rate, int durationSeconds) throws InterruptedException {
+        Map<LoadOperation, EndpointStats> stats = new EnumMap<>(LoadOperation.class);
+        for (LoadOperation operation : LoadOperation.values()) {
+            stats.put(operation, new EndpointStats());
+        }
+        AtomicLong outstanding = new AtomicLong();
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+        for (long sequence = 0; ; sequence++) {
+            long intendedStart = start + sequence * intervalNanos;
+            if (intendedStart >= end) {
+                break;
+            }
+            long wait = intendedStart - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            LoadOperation operation = LoadOperation.pick();
+            EndpointStats endpointStats = stats.get(operation);
+            outstanding.incrementAndGet();
+            client.sendAsync(operation.request(baseUri, catalogSize), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        long latency = System.nanoTime() - intendedStart;
+                        if (error != null) {
+                            endpointStats.recordFailure(latency);
+                        } else {
+                            endpointStats.record(latency, response.statusCode());
+                        }
+                        outstanding.decrementAndGet();
+                    });
+        }
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(60);
+        while (outstanding.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        return stats;
+    }
+
+    private static void report(Map<LoadOperation, EndpointStats> stats, int durationSeconds, long catalogSize, int rate,
+                               boolean virtualThreads, int clientThreads, File output) throws IOException {
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        System.out.printf("%n%-24s %9s %7s %9s %9s %9s %9s %9s %9s%n",
+                "endpoint", "requests", "errors", "rps", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        stats.forEach((operation, endpointStats) -> {
+            Map<String, Object> summary = endpointStats.summary(durationSeconds);
+            endpoints.put(operation.label(), summary);
+            System.out.printf("%-24s %9d %7d %9.2f %9.2f %9.2f %9.2f %9.2f %9.2f%n", operation.label(),
+                    summary.get("requests"), summary.get("errors"), summary.get("throughput_rps"),
+                    summary.get("p50_ms"), summary.get("p90_ms"), summary.get("p99_ms"),
+                    summary.get("p999_ms"), summary.get("max_ms"));
+        });
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("catalog_size", catalogSize);
+        result.put("target_rate_rps", rate);
+        result.put("duration_seconds", durationSeconds);
+        result.put("virtual_threads", virtualThreads);
+        result.put("client_threads", clientThreads);
+        result.put("endpoints", endpoints);
+        output.getAbsoluteFile().getParentFile().mkdirs();
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output, result);
+        System.out.printf("%nResults written to %s%n", output.getPath());
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator < 1) {
+                throw new IllegalArgumentException("Options must be passed as key=value, got " + arg);
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+}
@@ -0,0 +1,76 @@
+package com.pavila.benchmark.load;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.concurrent.ThreadLocalRandom;
+
+enum LoadOperation {
+
+    GET_BY_ID("GET /products/{id}", 55) {
+        @Override
+        HttpRequest request(URI baseUri, long catalogSize) {
+            return HttpRequest.newBuilder(URI.create(baseUri + "/" + randomId(catalogSize))).GET().build();
+        }
+    },
+    GET_PAGE("GET /products?limit=20", 15) {
+        @Override
+        HttpRequest request(URI baseUri, long catalogSize) {
+            return HttpRequest.newBuilder(URI.create(baseUri + "?limit=20")).GET().build();
+        }
+    },
+    SEARCH("GET /products/search", 10) {
+        @Override
+        HttpRequest request(URI baseUri, long catalogSize) {
+            return HttpRequest.newBuilder(URI.create(baseUri + "/search?q=product%20" + randomId(catalogSize))).GET().build();
+        }
+    },
+    CREATE("POST /products", 12) {
+        @Override
+        HttpRequest request(URI baseUri, long catalogSize) {
+            String body = "{\"name\": \"Load product " + randomId(catalogSize) + "\", \"price\": 19.99}";
+            return HttpRequest.newBuilder(baseUri)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+        }
+    },
+    TOGGLE_AVAILABILITY("PATCH /products/{id}", 8) {
+        @Override
+        HttpRequest request(URI baseUri, long catalogSize) {
+            return HttpRequest.newBuilder(URI.create(baseUri + "/" + randomId(catalogSize)))
+                    .method("PATCH", HttpRequest.BodyPublishers.noBody())
+                    .build();
+        }
+    };
+
+    private static final int TOTAL_WEIGHT = 100;
+
+    private final String label;
+    private final int weight;
+
+    LoadOperation(String label, int weight) {
+        this.label = label;
+        this.weight = weight;
+    }
+
+    abstract HttpRequest request(URI baseUri, long catalogSize);
+
+    String label() {
+        return label;
+    }
+
+    static LoadOperation pick() {
+        int roll = ThreadLocalRandom.current().nextInt(TOTAL_WEIGHT);
+        for (LoadOperation operation : values()) {
+            roll -= operation.weight;
+            if (roll < 0) {
+                return operation;
+            }
+        }
+        return GET_BY_ID;
+    }
+
+    private static long randomId(long catalogSize) {
+        return ThreadLocalRandom.current().nextLong(1, catalogSize + 1);
+    }
+}
@@ -0,0 +1,43 @@
+package com.pavila.benchmark.load;
+
+import com.pavila.ApiProductApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Server side of {@link LoadHarness}, started by it in a separate JVM.
+ * <p>
+ * Boots the application against the in-memory H2 database of the {@code embedded} profile on a random port, prints
+ * {@value #PORT_PREFIX} followed by the port and stops when its standard input is closed, which also happens when
+ * the harness exits. The only argument is whether Tomcat runs on virtual threads.
+ */
+public final class LoadServer {
+
+    static final String PORT_PREFIX = "LOAD_SERVER_PORT=";
+
+    private LoadServer() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        boolean virtualThreads = args.length > 0 && Boolean.parseBoolean(args[0]);
+        // Passed as command line arguments so they override application.properties, which sets the same keys
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(ApiProductApplication.class)
+                .profiles("embedded")
+                .run("--server.port=0",
+                        "--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--product.admission.rate-limit.enabled=false",
+                        "--logging.level.root=warn");
+        int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+        System.out.println(PORT_PREFIX + port);
+        System.out.flush();
+
+        InputStream input = System.in;
+        while (input.read() != -1) {
+            // Runs until the harness closes the pipe
+        }
+        context.close();
+    }
+}
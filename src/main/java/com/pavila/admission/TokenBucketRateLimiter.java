@@ -0,0 +1,56 @@
+package com.pavila.admission;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+// Each client's bucket is a single theoretical arrival time (GCRA), so taking a token is one CAS on that client's
+// AtomicLong and clients never contend with each other
+public class TokenBucketRateLimiter {
+
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+    private final LongSupplier nanoClock;
+    private final Cache<String, AtomicLong> buckets;
+
+    public TokenBucketRateLimiter(double requestsPerSecond, int burst, long maxClients) {
+        this(requestsPerSecond, burst, maxClients, System::nanoTime);
+    }
+
+    TokenBucketRateLimiter(double requestsPerSecond, int burst, long maxClients, LongSupplier nanoClock) {
+        this.emissionIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / requestsPerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * (burst - 1);
+        this.nanoClock = nanoClock;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxClients)
+                .expireAfterAccess(Duration.ofNanos(Math.max(burstToleranceNanos, TimeUnit.SECONDS.toNanos(1))))
+                .build();
+    }
+
+    // Returns 0 when the request may proceed, otherwise the nanoseconds until the client gets a token.
+    // A request is allowed while the theoretical arrival time is at most the burst tolerance ahead of now,
+    // so a full bucket lets burst requests through back to back.
+    public long tryAcquire(String clientId) {
+        AtomicLong theoreticalArrival = buckets.get(clientId, key -> new AtomicLong(Long.MIN_VALUE));
+        while (true) {
+            long now = nanoClock.getAsLong();
+            long current = theoreticalArrival.get();
+            long arrival = Math.max(current, now);
+            long ahead = arrival - now;
+            if (ahead > burstToleranceNanos) {
+                return ahead - burstToleranceNanos;
+            }
+            if (theoreticalArrival.compareAndSet(current, arrival + emissionIntervalNanos)) {
+                return 0;
+            }
+        }
+    }
+
+    public long getClientCount() {
+        return buckets.estimatedSize();
+    }
+}
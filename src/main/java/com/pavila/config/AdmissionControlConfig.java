@@ -0,0 +1,56 @@
+package com.pavila.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pavila.admission.AdaptiveConcurrencyLimiter;
+import com.pavila.admission.TokenBucketRateLimiter;
+import com.pavila.filter.AdmissionControlFilter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+@ConditionalOnProperty(name = "product.admission.enabled", havingValue = "true", matchIfMissing = true)
+public class AdmissionControlConfig {
+
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(
+            @Value("${product.admission.rate-limit.enabled:true}") boolean rateLimitEnabled,
+            @Value("${product.admission.rate-limit.requests-per-second:100}") double requestsPerSecond,
+            @Value("${product.admission.rate-limit.burst:200}") int burst,
+            @Value("${product.admission.rate-limit.max-clients:100000}") long maxClients,
+            @Value("${product.admission.concurrency.enabled:true}") boolean concurrencyEnabled,
+            @Value("${product.admission.concurrency.initial-limit:20}") int initialLimit,
+            @Value("${product.admission.concurrency.min-limit:4}") int minLimit,
+            @Value("${product.admission.concurrency.max-limit:200}") int maxLimit,
+            @Value("${product.admission.concurrency.latency-threshold-ms:500}") long latencyThresholdMillis,
+            @Value("${product.admission.concurrency.backoff-ratio:0.9}") double backoffRatio,
+            ObjectMapper objectMapper,
+            MeterRegistry meterRegistry) {
+        TokenBucketRateLimiter rateLimiter = null;
+        if (rateLimitEnabled) {
+            rateLimiter = new TokenBucketRateLimiter(requestsPerSecond, burst, maxClients);
+            Gauge.builder("admission.rate_limit.clients", rateLimiter, TokenBucketRateLimiter::getClientCount)
+                    .description("Clients with a token bucket")
+                    .register(meterRegistry);
+        }
+        AdaptiveConcurrencyLimiter concurrencyLimiter = null;
+        if (concurrencyEnabled) {
+            concurrencyLimiter = new AdaptiveConcurrencyLimiter(initialLimit, minLimit, maxLimit, latencyThresholdMillis, backoffRatio);
+            Gauge.builder("admission.concurrency.limit", concurrencyLimiter, AdaptiveConcurrencyLimiter::getLimit)
+                    .description("Current adaptive concurrency limit")
+                    .register(meterRegistry);
+            Gauge.builder("admission.concurrency.in_flight", concurrencyLimiter, AdaptiveConcurrencyLimiter::getInFlight)
+                    .description("Requests currently admitted")
+                    .register(meterRegistry);
+        }
+        FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>(
+                new AdmissionControlFilter(rateLimiter, concurrencyLimiter, objectMapper, meterRegistry));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 5);
+        return registration;
+    }
+}
@@ -0,0 +1,44 @@
+package com.pavila.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.metrics.cache.CacheMeterBinderProvider;
+import org.springframework.boot.actuate.metrics.cache.CaffeineCacheMeterBinderProvider;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String PRODUCTS_CACHE = "products";
+
+    @Bean
+    public CacheManager cacheManager(@Value("${product.cache.products.spec}") String productsCacheSpec,
+                                     @Value("${product.cache.products.evict-again-after:1s}") Duration evictAgainAfter,
+                                     TaskScheduler taskScheduler) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(PRODUCTS_CACHE);
+        cacheManager.setCacheSpecification(productsCacheSpec);
+        cacheManager.setAllowNullValues(false);
+        // Evictions run after the writing transaction commits and once more after evictAgainAfter
+        return new TransactionAwareCacheManagerProxy(
+                new DelayedEvictionCacheManager(cacheManager, taskScheduler, evictAgainAfter));
+    }
+
+    // Actuator only unwraps the transaction-aware decorator, this keeps the Caffeine statistics of the cache
+    // behind the delayed eviction published as cache.gets, cache.puts and cache.evictions
+    @Bean
+    public CacheMeterBinderProvider<DelayedEvictionCacheManager.DelayedEvictionCache> delayedEvictionCacheMeterBinderProvider() {
+        CaffeineCacheMeterBinderProvider caffeineProvider = new CaffeineCacheMeterBinderProvider();
+        return (cache, tags) -> cache.getTargetCache() instanceof CaffeineCache caffeineCache
+                ? caffeineProvider.getMeterBinder(caffeineCache, tags)
+                : null;
+    }
+}
@@ -0,0 +1,32 @@
+package com.pavila.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pavila.filter.ConnectionPoolLimitFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+// Registered with platform and virtual threads alike: Tomcat's platform pool (200 threads by default) is also
+// larger than the connection pool, so without the filter every connection can end up held by a request
+@Configuration
+public class ConnectionPoolLimitConfig {
+
+    @Bean
+    public FilterRegistrationBean<ConnectionPoolLimitFilter> connectionPoolLimitFilter(
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int maximumPoolSize,
+            @Value("${product.connection-limit.requests-per-connection:1}") int requestsPerConnection,
+            @Value("${product.connection-limit.reserved-connections:1}") int reservedConnections,
+            @Value("${product.connection-limit.acquire-timeout-ms:1000}") long acquireTimeoutMillis,
+            ObjectMapper objectMapper) {
+        // Requests do not get the whole pool: when a block of product ids runs out Hibernate fetches the next one
+        // on a second connection while the inserting transaction keeps its own, so with every connection held by
+        // a request that fetch would wait for the pool timeout
+        int permits = Math.max(maximumPoolSize - reservedConnections, 1) * requestsPerConnection;
+        ConnectionPoolLimitFilter filter = new ConnectionPoolLimitFilter(permits, acquireTimeoutMillis, objectMapper);
+        FilterRegistrationBean<ConnectionPoolLimitFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
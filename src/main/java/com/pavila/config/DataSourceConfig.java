@@ -0,0 +1,83 @@
+package com.pavila.config;
+
+import com.pavila.datasource.ReadWriteRoutingDataSource;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.PhysicalConnectionHandlingMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+// The URLs are read as a property rather than inlined, JDBC URLs may contain quotes that would break the expression
+@ConditionalOnExpression("T(org.springframework.util.StringUtils).hasText(environment.getProperty('product.datasource.replicas.urls'))")
+public class DataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReadWriteRoutingDataSource routingDataSource(
+            HikariDataSource primaryDataSource,
+            DataSourceProperties properties,
+            @Value("${product.datasource.replicas.urls}") List<String> replicaUrls,
+            @Value("${product.datasource.replicas.username:${spring.datasource.username:}}") String username,
+            @Value("${product.datasource.replicas.password:${spring.datasource.password:}}") String password,
+            @Value("${product.datasource.replicas.connection-timeout-ms:1000}") long connectionTimeoutMillis,
+            @Value("${product.datasource.replicas.retry-after-ms:30000}") long retryAfterMillis,
+            MeterRegistry meterRegistry) {
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (String url : replicaUrls) {
+            HikariConfig config = new HikariConfig();
+            config.setPoolName("replica-" + (replicas.size() + 1));
+            config.setJdbcUrl(url.trim());
+            config.setUsername(username);
+            config.setPassword(password);
+            config.setDriverClassName(properties.determineDriverClassName());
+            config.setMaximumPoolSize(primaryDataSource.getMaximumPoolSize());
+            config.setConnectionTimeout(connectionTimeoutMillis);
+            config.setInitializationFailTimeout(-1);
+            config.setReadOnly(true);
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.add(new HikariDataSource(config));
+        }
+        ReadWriteRoutingDataSource routingDataSource =
+                new ReadWriteRoutingDataSource(primaryDataSource, replicas, retryAfterMillis);
+        Gauge.builder("datasource.replicas.available", routingDataSource, ReadWriteRoutingDataSource::getAvailableReplicaCount)
+                .description("Read replicas currently accepting connections")
+                .register(meterRegistry);
+        return routingDataSource;
+    }
+
+    // With open-in-view Spring holds the connection of the first transaction for the whole request, so a write after
+    // a read-only transaction would run on the replica. Releasing it after each transaction routes every one again.
+    @Bean
+    public HibernatePropertiesCustomizer routingConnectionHandling() {
+        return properties -> properties.put(AvailableSettings.CONNECTION_HANDLING,
+                PhysicalConnectionHandlingMode.DELAYED_ACQUISITION_AND_RELEASE_AFTER_TRANSACTION);
+    }
+
+    // The physical connection is fetched on first use, after the transaction has been marked read-only
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource routingDataSource) {
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+}
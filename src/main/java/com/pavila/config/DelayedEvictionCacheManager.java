@@ -0,0 +1,121 @@
+package com.pavila.config;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Every eviction runs twice: once when it is requested and again after a delay. A reader that loaded a row
+// before a writer committed puts it into the cache only after its own transaction commits, which can be after
+// the writer's eviction, and a reader on a lagging replica can load the old row even after it. The second
+// eviction removes what such readers put back, so a stale entry lives for the delay instead of the whole TTL.
+public class DelayedEvictionCacheManager implements CacheManager {
+
+    private final CacheManager delegate;
+    private final TaskScheduler taskScheduler;
+    private final Duration delay;
+    private final Map<String, Cache> caches = new ConcurrentHashMap<>();
+
+    public DelayedEvictionCacheManager(CacheManager delegate, TaskScheduler taskScheduler, Duration delay) {
+        this.delegate = delegate;
+        this.taskScheduler = taskScheduler;
+        this.delay = delay;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache target = delegate.getCache(name);
+        return target == null ? null : caches.computeIfAbsent(name, key -> new DelayedEvictionCache(target, taskScheduler, delay));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    public static final class DelayedEvictionCache implements Cache {
+
+        private final Cache target;
+        private final TaskScheduler taskScheduler;
+        private final Duration delay;
+
+        private DelayedEvictionCache(Cache target, TaskScheduler taskScheduler, Duration delay) {
+            this.target = target;
+            this.taskScheduler = taskScheduler;
+            this.delay = delay;
+        }
+
+        public Cache getTargetCache() {
+            return target;
+        }
+
+        @Override
+        public String getName() {
+            return target.getName();
+        }
+
+        @Override
+        public Object getNativeCache() {
+            return target.getNativeCache();
+        }
+
+        @Override
+        public ValueWrapper get(Object key) {
+            return target.get(key);
+        }
+
+        @Override
+        public <T> T get(Object key, Class<T> type) {
+            return target.get(key, type);
+        }
+
+        @Override
+        public <T> T get(Object key, Callable<T> valueLoader) {
+            return target.get(key, valueLoader);
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            target.put(key, value);
+        }
+
+        @Override
+        public ValueWrapper putIfAbsent(Object key, Object value) {
+            return target.putIfAbsent(key, value);
+        }
+
+        @Override
+        public void evict(Object key) {
+            target.evict(key);
+            taskScheduler.schedule(() -> target.evict(key), Instant.now().plus(delay));
+        }
+
+        @Override
+        public boolean evictIfPresent(Object key) {
+            taskScheduler.schedule(() -> target.evict(key), Instant.now().plus(delay));
+            return target.evictIfPresent(key);
+        }
+
+        @Override
+        public void clear() {
+            target.clear();
+            taskScheduler.schedule(target::clear, Instant.now().plus(delay));
+        }
+
+        @Override
+        public boolean invalidate() {
+            taskScheduler.schedule(target::clear, Instant.now().plus(delay));
+            return target.invalidate();
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.pavila.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+@Configuration
+public class HibernateCacheConfig {
+
+    public static final String PRODUCT_REGION = "product";
+
+    @Bean
+    public CacheManager hibernateCacheManager(Environment environment) {
+        Map<String, Region> regions = Binder.get(environment)
+                .bind("product.cache.regions", Bindable.mapOf(String.class, Region.class))
+                .orElse(Map.of());
+
+        CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+        // Each application context gets its own manager, the provider would otherwise share one per class loader
+        URI uri = URI.create("product-hibernate-cache-" + UUID.randomUUID());
+        CacheManager cacheManager = provider.getCacheManager(uri, getClass().getClassLoader());
+        createRegion(cacheManager, PRODUCT_REGION, regions.get(PRODUCT_REGION));
+        createRegion(cacheManager, RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME,
+                regions.get(RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME));
+        // Update timestamps must outlive every cached query result, so this region is never bounded or expired
+        createRegion(cacheManager, RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, null);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheManagerCustomizer(CacheManager hibernateCacheManager) {
+        return hibernateProperties -> hibernateProperties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    private void createRegion(CacheManager cacheManager, String name, Region region) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setStatisticsEnabled(true);
+        if (region != null && region.maximumSize() != null) {
+            configuration.setMaximumSize(OptionalLong.of(region.maximumSize()));
+        }
+        if (region != null && region.expireAfterWrite() != null) {
+            configuration.setExpireAfterWrite(OptionalLong.of(region.expireAfterWrite().toNanos()));
+        }
+        cacheManager.createCache(name, configuration);
+    }
+
+    public record Region(Long maximumSize, Duration expireAfterWrite) {
+    }
+}
@@ -0,0 +1,30 @@
+package com.pavila.config;
+
+import com.pavila.filter.RequestLogSamplingFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import java.util.Map;
+
+@Configuration
+public class LoggingConfig {
+
+    @Bean
+    public FilterRegistrationBean<RequestLogSamplingFilter> requestLogSamplingFilter(
+            @Value("${product.logging.sample-rate:0.01}") double sampleRate,
+            Environment environment) {
+        Map<String, Double> endpointSampleRates = Binder.get(environment)
+                .bind("product.logging.endpoint-sample-rates", Bindable.mapOf(String.class, Double.class))
+                .orElse(Map.of());
+        FilterRegistrationBean<RequestLogSamplingFilter> registration =
+                new FilterRegistrationBean<>(new RequestLogSamplingFilter(sampleRate, endpointSampleRates));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
@@ -1,22 +1,49 @@
 package com.pavila.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.pavila.event.ProductChangeFeed;
+import com.pavila.exception.PreconditionFailedException;
+import com.pavila.idempotency.IdempotencyService;
+import com.pavila.importer.ProductImportService;
 import com.pavila.model.dto.ApiError;
+import com.pavila.model.dto.BulkOperationDTOResponse;
+import com.pavila.model.dto.CatalogVersion;
+import com.pavila.model.dto.ProductChangeDTOResponse;
+import com.pavila.model.dto.ProductAvailabilityDTORequest;
+import com.pavila.model.dto.ProductBulkDTOResponse;
 import com.pavila.model.dto.ProductDTORequest;
 import com.pavila.model.dto.ProductDTOResponse;
+import com.pavila.model.dto.ProductFilter;
+import com.pavila.model.dto.ProductIdsDTORequest;
+import com.pavila.model.dto.ProductImportJobDTOResponse;
+import com.pavila.model.dto.ProductPageDTOResponse;
+import com.pavila.model.dto.ProductSearchDTOResponse;
 import com.pavila.service.ProductService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.List;
 
 @RestController
@@ -25,16 +52,26 @@ import java.util.List;
 @Tag(name = "Product")
 public class ProductController {
 
+    private static final String MERGE_PATCH_JSON_VALUE = "application/merge-patch+json";
+    private static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    private static final String FIELDS_DESCRIPTION = "Comma separated fields to return, only these columns are read: " +
+            "id, name, price, available, created_date, last_modified_date and version. All fields when omitted";
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+    private static final String IDEMPOTENT_REPLAYED_HEADER = "Idempotent-Replayed";
+
     private final ProductService productService;
+    private final IdempotencyService idempotencyService;
+    private final ProductChangeFeed productChangeFeed;
+    private final ProductImportService productImportService;
 
 
     @Operation(
             summary = "Returns all products",
-            description = "Get a list of all products",
+            description = "Get a list of all products, optionally filtered by availability, price range and name prefix and sorted by price, created_date or name",
             responses = {
                     @ApiResponse(
                             responseCode = "200",
-                            description = "A list of product objects",
+                            description = "A list of product objects, empty when no product matches",
                             content = @Content(
                                     mediaType = "application/json",
                                     schema = @Schema(implementation = ProductDTOResponse.class, type = "array"),
@@ -46,23 +83,147 @@ public class ProductController {
                             )
                     ),
                     @ApiResponse(
-                            responseCode = "404",
-                            description = "No products found",
+                            responseCode = "304",
+                            description = "The catalog has not changed since the ETag or date sent in If-None-Match or If-Modified-Since"
+                    )
+            }
+    )
+    @GetMapping(produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_PROBLEM_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE })
+    public ResponseEntity<List<ProductDTOResponse>> findAllProducts(@ParameterObject ProductFilter filter,
+                                                                    @Parameter(description = FIELDS_DESCRIPTION, example = "id,name,price")
+                                                                    @RequestParam(required = false) String fields,
+                                                                    WebRequest webRequest){
+        CatalogVersion catalogVersion = productService.findCatalogVersion();
+        // Weak because the JSON, CBOR, Smile and gzipped representations of the catalog share it
+        String eTag = "W/\"catalog-" + catalogVersion.getCount() + "-" + toEpochMillis(catalogVersion.getLastModified()) + "\"";
+        if (webRequest.checkNotModified(eTag, toEpochMillis(catalogVersion.getLastModified()))) {
+            return null;
+        }
+        return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(productService.findAll(filter, fields));
+    }
+
+
+    @Operation(
+            summary = "Returns a page of products",
+            description = "Get a page of products ordered by ID, optionally filtered by availability, price range and name prefix. Use the next_cursor of the response as the after parameter to fetch the next page",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "A page of product objects, the items list is empty when there are no more products",
                             content = @Content(
                                     mediaType = "application/json",
-                                    schema = @Schema(implementation = ApiError.class),
+                                    schema = @Schema(implementation = ProductPageDTOResponse.class),
                                     examples = @ExampleObject(
-                                            name = "Error Example",
-                                            summary = "Example of an error response when no products are found",
-                                            value = "{\"http_code\": 404, \"url\": \"/api/v1/products\", \"http_method\": \"GET\", \"message\": \"No products found\", \"backend_message\": \"The request was successful, but there are no products available in the database.\", \"timestamp\": \"10:08:2024 12:00:00\", \"details\": [\"Ensure products are added to the database\", \"Check the database connection\"]}"
+                                            name = "Product Page Example",
+                                            summary = "Example of a page of products",
+                                            value = "{\"items\": [{\"id\": 1, \"name\": \"Product 1\", \"price\": 29.99, \"available\": true, \"created_date\": \"2024-08-10 12:00:00\"}], \"limit\": 1, \"has_more\": true, \"next_cursor\": \"aWQ6MQ\"}"
+                                    )
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Invalid limit or cursor",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ApiError.class)
+                            )
+                    )
+            }
+    )
+    @GetMapping(params = "limit", produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_PROBLEM_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE })
+    public ResponseEntity<ProductPageDTOResponse> findProductsPage(@RequestParam int limit,
+                                                                   @RequestParam(required = false) String after,
+                                                                   @ParameterObject ProductFilter filter){
+        return ResponseEntity.ok(productService.findPage(filter, after, limit));
+    }
+
+
+    @Operation(
+            summary = "Exports all products",
+            description = "Streams the whole catalog as newline-delimited JSON, one product per line ordered by ID",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "A stream of product objects",
+                            content = @Content(
+                                    mediaType = MediaType.APPLICATION_NDJSON_VALUE,
+                                    schema = @Schema(implementation = ProductDTOResponse.class),
+                                    examples = @ExampleObject(
+                                            name = "Export Example",
+                                            summary = "Example of an exported catalog",
+                                            value = "{\"id\": 1, \"name\": \"Product 1\", \"price\": 29.99, \"available\": true, \"created_date\": \"2024-08-10 12:00:00\"}\n{\"id\": 2, \"name\": \"Product 2\", \"price\": 39.99, \"available\": false, \"created_date\": \"2024-08-10 12:00:00\"}"
+                                    )
+                            )
+                    )
+            }
+    )
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportProducts(HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        productService.exportAll(response.getOutputStream());
+    }
+
+
+    @Operation(
+            summary = "Streams product changes",
+            description = "Server-Sent Events stream of the products created, updated, deleted or whose availability changed, " +
+                    "sent after each change is committed. Reconnect with the Last-Event-ID header to resume where the stream left off; " +
+                    "a reset event means changes were missed and the catalog must be fetched again",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "A stream of change events named created, updated, deleted, availability_changed or reset",
+                            content = @Content(
+                                    mediaType = "text/event-stream",
+                                    schema = @Schema(implementation = ProductChangeDTOResponse.class),
+                                    examples = @ExampleObject(
+                                            name = "Change Event Example",
+                                            summary = "Example of a change event",
+                                            value = "id:1723291200000-42\nevent:updated\ndata:{\"sequence\": 42, \"type\": \"updated\", \"product_id\": 1, \"name\": \"MackBook Air\", \"timestamp\": \"2024-08-10 12:00:00\"}"
                                     )
                             )
                     )
             }
     )
-    @GetMapping(produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_PROBLEM_JSON_VALUE })
-    public ResponseEntity<List<ProductDTOResponse>> findAllProducts(){
-        return ResponseEntity.ok(productService.findAll());
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId){
+        return productChangeFeed.subscribe(lastEventId);
+    }
+
+
+    @Operation(
+            summary = "Searches products by name",
+            description = "Typo-tolerant and prefix search over the product names, ranked by relevance and paginated",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "A page of matching products ordered by score",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ProductSearchDTOResponse.class),
+                                    examples = @ExampleObject(
+                                            name = "Search Example",
+                                            summary = "Example of a search response",
+                                            value = "{\"query\": \"mackbok\", \"total\": 1, \"page\": 0, \"size\": 20, \"items\": [{\"id\": 1, \"name\": \"MackBook Air\", \"score\": 0.833}]}"
+                                    )
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "The query is blank or the page parameters are invalid",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ApiError.class)
+                            )
+                    )
+            }
+    )
+    @GetMapping(value = "/search", produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_PROBLEM_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE })
+    public ResponseEntity<ProductSearchDTOResponse> searchProducts(@RequestParam("q") String query,
+                                                                   @RequestParam(defaultValue = "0") int page,
+                                                                   @RequestParam(defaultValue = "20") int size){
+        return ResponseEntity.ok(productService.search(query, page, size));
     }
 
 
@@ -83,6 +244,10 @@ public class ProductController {
                                     )
                             )
                     ),
+                    @ApiResponse(
+                            responseCode = "304",
+                            description = "The product has not changed since the ETag or date sent in If-None-Match or If-Modified-Since"
+                    ),
                     @ApiResponse(
                             responseCode = "404",
                             description = "Product not found",
@@ -98,16 +263,27 @@ public class ProductController {
                     )
             }
     )
-    @GetMapping( value = "/{productId}", produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_PROBLEM_JSON_VALUE })
-    public ResponseEntity<ProductDTOResponse> findProductById(@PathVariable Long productId ){
-        return ResponseEntity.ok(productService.findById(productId));
+    @GetMapping( value = "/{productId}", produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_PROBLEM_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE })
+    public ResponseEntity<ProductDTOResponse> findProductById(@PathVariable Long productId,
+                                                              @Parameter(description = FIELDS_DESCRIPTION, example = "id,name,price,version")
+                                                              @RequestParam(required = false) String fields,
+                                                              WebRequest webRequest){
+        ProductDTOResponse product = fields == null ? productService.findById(productId) : productService.findById(productId, fields);
+        LocalDateTime lastModified = product.getLastModifiedDate() != null ? product.getLastModifiedDate() : product.getCreatedDate();
+        // A sparse product read without its version has no ETag to validate
+        if (product.getVersion() != null
+                && webRequest.checkNotModified(String.valueOf(product.getVersion()), toEpochMillis(lastModified))) {
+            return null;
+        }
+        return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(product);
     }
 
 
 
     @Operation(
             summary = "Creates a new product",
-            description = "Creates a new product and returns the created product",
+            description = "Creates a new product and returns the created product. When an Idempotency-Key header is sent, " +
+                    "retries with the same key and body return the original product instead of creating it again",
             responses = {
                     @ApiResponse(
                             responseCode = "201",
@@ -124,6 +300,22 @@ public class ProductController {
                                     mediaType = "application/json",
                                     schema = @Schema(implementation = ApiError.class)
                             )
+                    ),
+                    @ApiResponse(
+                            responseCode = "409",
+                            description = "Another request with the same Idempotency-Key is still being processed",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ApiError.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "422",
+                            description = "The Idempotency-Key was already used with a different request body",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ApiError.class)
+                            )
                     )
             },
             requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
@@ -138,10 +330,160 @@ public class ProductController {
                     )
             )
     )
-    @PostMapping(produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_PROBLEM_JSON_VALUE },
-            consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_PROBLEM_JSON_VALUE })
-    public ResponseEntity<ProductDTOResponse> saveProduct(@RequestBody @Valid ProductDTORequest productRequest){
-        return ResponseEntity.status(HttpStatus.CREATED).body(productService.save(productRequest));
+    @PostMapping(produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_PROBLEM_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE },
+            consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_PROBLEM_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE })
+    public ResponseEntity<ProductDTOResponse> saveProduct(@RequestBody @Valid ProductDTORequest productRequest,
+                                                          @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey){
+        if (idempotencyKey == null) {
+            return ResponseEntity.status(HttpStatus.CREATED).body(productService.save(productRequest));
+        }
+        IdempotencyService.Result result = idempotencyService.execute(idempotencyKey, productRequest,
+                () -> productService.save(productRequest));
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .header(IDEMPOTENT_REPLAYED_HEADER, String.valueOf(result.replayed()))
+                .body(result.product());
+    }
+
+
+
+    @Operation(
+            summary = "Creates products in bulk",
+            description = "Validates every product, inserts the valid ones in batched transactions and returns the result of each item",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "201",
+                            description = "All the products were created",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ProductBulkDTOResponse.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "207",
+                            description = "Some products were not created, check the status and errors of each item",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ProductBulkDTOResponse.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "The list is empty or exceeds the maximum size",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ApiError.class)
+                            )
+                    )
+            }
+    )
+    @PostMapping(value = "/bulk", produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_PROBLEM_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE },
+            consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_PROBLEM_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE })
+    public ResponseEntity<ProductBulkDTOResponse> saveProducts(@RequestBody List<ProductDTORequest> productRequests){
+        ProductBulkDTOResponse bulkResponse = productService.saveAll(productRequests);
+        HttpStatus status = bulkResponse.getFailed() == 0 ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS;
+        return ResponseEntity.status(status).body(bulkResponse);
+    }
+
+
+
+    @Operation(
+            summary = "Imports products from a CSV or NDJSON file",
+            description = "Reads the request body row by row and upserts the products in batched transactions without buffering the file. " +
+                    "CSV files start with a header of the columns id, name, price and available; NDJSON files hold one product object per line. " +
+                    "Rows with an id update that product, rows without one are created. Invalid rows are reported with their line number " +
+                    "and do not stop the import. The progress can be followed from another connection with the job in the Location header",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "201",
+                            description = "All the rows were imported",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ProductImportJobDTOResponse.class),
+                                    examples = @ExampleObject(
+                                            name = "Import Example",
+                                            summary = "Example of a completed import",
+                                            value = "{\"id\": \"5b0f8a52-6f4c-4a8e-9d1c-2f1e7c3a9b10\", \"status\": \"COMPLETED\", \"format\": \"csv\", \"processed\": 2, \"created\": 1, \"updated\": 1, \"failed\": 0, \"elapsed_millis\": 12, \"rows_per_second\": 166, \"started_at\": \"2024-08-10 12:00:00\", \"finished_at\": \"2024-08-10 12:00:00\", \"errors\": [], \"errors_truncated\": false}"
+                                    )
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "207",
+                            description = "Some rows were not imported or the upload stopped, check the status and the errors of each line",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ProductImportJobDTOResponse.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "The CSV header is missing or has unknown columns",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ApiError.class)
+                            )
+                    )
+            }
+    )
+    @PostMapping(value = "/imports", produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_PROBLEM_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE },
+            consumes = { ProductImportService.TEXT_CSV_VALUE, MediaType.APPLICATION_NDJSON_VALUE })
+    public ResponseEntity<ProductImportJobDTOResponse> importProducts(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                                      HttpServletRequest request) throws IOException {
+        ProductImportJobDTOResponse job = productImportService.importProducts(request.getInputStream(), contentType);
+        HttpStatus status = job.getStatus() == ProductImportJobDTOResponse.Status.COMPLETED && job.getFailed() == 0
+                ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS;
+        return ResponseEntity.status(status)
+                .location(URI.create(request.getContextPath() + ProductImportService.PATH + "/" + job.getId()))
+                .body(job);
+    }
+
+
+
+    @Operation(
+            summary = "Finds an import job",
+            description = "Returns the progress of an import while it runs and its result once finished, including the errors of each line",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "The import job was found",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ProductImportJobDTOResponse.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "404",
+                            description = "The import job does not exist or has expired",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ApiError.class)
+                            )
+                    )
+            }
+    )
+    @GetMapping(value = "/imports/{jobId}", produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_PROBLEM_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE })
+    public ResponseEntity<ProductImportJobDTOResponse> findImport(@PathVariable String jobId){
+        return ResponseEntity.ok(productImportService.findJob(jobId));
+    }
+
+
+
+    @Operation(
+            summary = "Finds the recent import jobs",
+            description = "Returns the running and recently finished imports, newest first",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "A list of import jobs",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ProductImportJobDTOResponse.class)
+                            )
+                    )
+            }
+    )
+    @GetMapping(value = "/imports", produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_PROBLEM_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE })
+    public ResponseEntity<List<ProductImportJobDTOResponse>> findImports(){
+        return ResponseEntity.ok(productImportService.findJobs());
     }
 
 
@@ -176,13 +518,53 @@ public class ProductController {
                     )
             }
     )
-    @PatchMapping( value = "/{productId}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_PROBLEM_JSON_VALUE })
+    @PatchMapping( value = "/{productId}", produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_PROBLEM_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE })
     public ResponseEntity<?> updateAvailableProduct(@PathVariable Long productId ){
         productService.updateAvailableProduct(productId);
         return ResponseEntity.ok().build();
     }
 
 
+    @Operation(
+            summary = "Update available products in bulk",
+            description = "Sets the availability of all the given products with a single statement",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "The number of requested and updated products",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = BulkOperationDTOResponse.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Bad request due to invalid input",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ApiError.class)
+                            )
+                    )
+            },
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ProductAvailabilityDTORequest.class),
+                            examples = @ExampleObject(
+                                    name = "Example Value",
+                                    summary = "Example availability update",
+                                    value = "{\n  \"ids\": [1, 2, 3],\n  \"available\": false\n}"
+                            )
+                    )
+            )
+    )
+    @PatchMapping(value = "/availability", produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_PROBLEM_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE },
+            consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_PROBLEM_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE })
+    public ResponseEntity<BulkOperationDTOResponse> updateAvailableProducts(@RequestBody @Valid ProductAvailabilityDTORequest availabilityRequest){
+        return ResponseEntity.ok(productService.updateAvailability(availabilityRequest));
+    }
+
+
     @Operation(
             summary = "Update a product",
             description = "Update a product by ID",
@@ -210,15 +592,81 @@ public class ProductController {
                                     mediaType = "application/json",
                                     schema = @Schema(implementation = ApiError.class)
                             )
+                    ),
+                    @ApiResponse(
+                            responseCode = "412",
+                            description = "The ETag sent in If-Match does not match the current version of the product",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ApiError.class)
+                            )
                     )
 
             }
     )
-    @PutMapping( value = "/{productId}", produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_PROBLEM_JSON_VALUE },
-            consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_PROBLEM_JSON_VALUE })
-    public ResponseEntity<?> updateProduct(@RequestBody @Valid ProductDTORequest productRequest, @PathVariable Long productId ){
-        productService.update(productRequest, productId);
-        return ResponseEntity.ok().build();
+    @PutMapping( value = "/{productId}", produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_PROBLEM_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE },
+            consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_PROBLEM_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE })
+    public ResponseEntity<ProductDTOResponse> updateProduct(@RequestBody @Valid ProductDTORequest productRequest, @PathVariable Long productId,
+                                                            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        ProductDTOResponse product = productService.update(productRequest, productId, toExpectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(String.valueOf(product.getVersion())).body(product);
+    }
+
+
+    @Operation(
+            summary = "Partially update a product",
+            description = "Apply a JSON Merge Patch (RFC 7396) to a product. Only the fields present in the patch are changed and only the changed columns are written",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "The updated product",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ProductDTOResponse.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "The patch is not a JSON object or leaves the product invalid",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ApiError.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "404",
+                            description = "Product not found",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ApiError.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "412",
+                            description = "The ETag sent in If-Match does not match the current version of the product",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ApiError.class)
+                            )
+                    )
+            },
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    content = @Content(
+                            mediaType = MERGE_PATCH_JSON_VALUE,
+                            examples = @ExampleObject(
+                                    name = "Example Value",
+                                    summary = "Example merge patch changing only the price",
+                                    value = "{\n  \"price\": 149.99\n}"
+                            )
+                    )
+            )
+    )
+    @PatchMapping(value = "/{productId}", produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_PROBLEM_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE },
+            consumes = MERGE_PATCH_JSON_VALUE)
+    public ResponseEntity<ProductDTOResponse> patchProduct(@RequestBody JsonNode mergePatch, @PathVariable Long productId,
+                                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch){
+        ProductDTOResponse product = productService.patch(productId, mergePatch, toExpectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(String.valueOf(product.getVersion())).body(product);
     }
 
 
@@ -244,10 +692,59 @@ public class ProductController {
                     )
             }
     )
-    @DeleteMapping(value = "/{productId}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_PROBLEM_JSON_VALUE })
+    @DeleteMapping(value = "/{productId}", produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_PROBLEM_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE })
     public ResponseEntity<?> deleteProductById(@PathVariable Long productId){
         productService.delete(productId);
         return ResponseEntity.noContent().build();
     }
 
+
+    @Operation(
+            summary = "Delete products in bulk",
+            description = "Deletes all the given products, issuing one statement per chunk of 500 ids",
+            responses = {
+                    @ApiResponse(
+                            responseCode = "200",
+                            description = "The number of requested and deleted products",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = BulkOperationDTOResponse.class)
+                            )
+                    ),
+                    @ApiResponse(
+                            responseCode = "400",
+                            description = "Bad request due to invalid input",
+                            content = @Content(
+                                    mediaType = "application/json",
+                                    schema = @Schema(implementation = ApiError.class)
+                            )
+                    )
+            }
+    )
+    @PostMapping(value = "/bulk-delete", produces = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_PROBLEM_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE },
+            consumes = { MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_PROBLEM_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE })
+    public ResponseEntity<BulkOperationDTOResponse> deleteProducts(@RequestBody @Valid ProductIdsDTORequest idsRequest){
+        return ResponseEntity.ok(productService.deleteAll(idsRequest));
+    }
+
+
+    private Long toExpectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String eTag = ifMatch.trim();
+        if (eTag.startsWith("\"") && eTag.endsWith("\"") && eTag.length() > 1) {
+            eTag = eTag.substring(1, eTag.length() - 1);
+        }
+        try {
+            return Long.parseLong(eTag);
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("If-Match " + ifMatch + " does not match the current ETag of the product");
+        }
+    }
+
+    private long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime == null ? -1 : dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
 }
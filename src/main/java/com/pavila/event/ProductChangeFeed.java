@@ -0,0 +1,214 @@
+package com.pavila.event;
+
+import com.pavila.model.dto.ProductChangeDTOResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+@Slf4j
+@Component
+public class ProductChangeFeed {
+
+    public static final String PATH = "/api/v1/products/changes";
+    private static final String RESET_TYPE = "reset";
+
+    private final AtomicReferenceArray<ProductChangeDTOResponse> ring;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    // Event IDs carry the start time of this instance so IDs from before a restart are not mistaken for current ones
+    private final long epoch = System.currentTimeMillis();
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final long timeoutMillis;
+    private final long reconnectMillis;
+    private final Counter published;
+    private final Counter resets;
+
+    public ProductChangeFeed(@Value("${product.changes.buffer-size:4096}") int bufferSize,
+                             @Value("${product.changes.timeout-ms:1800000}") long timeoutMillis,
+                             @Value("${product.changes.reconnect-ms:3000}") long reconnectMillis,
+                             MeterRegistry meterRegistry) {
+        int capacity = Integer.highestOneBit(Math.max(bufferSize - 1, 1)) << 1;
+        this.ring = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+        this.timeoutMillis = timeoutMillis;
+        this.reconnectMillis = reconnectMillis;
+        this.published = meterRegistry.counter("product.changes.published");
+        this.resets = meterRegistry.counter("product.changes.resets");
+        Gauge.builder("product.changes.subscribers", subscribers, Set::size)
+                .description("Clients connected to the product change feed")
+                .register(meterRegistry);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        long sequence = head.incrementAndGet();
+        ring.set(index(sequence), ProductChangeDTOResponse.builder()
+                .sequence(sequence)
+                .type(event.getType().name().toLowerCase(Locale.ROOT))
+                .productId(event.getProductId())
+                .name(event.getName())
+                .timestamp(LocalDateTime.now())
+                .build());
+        published.increment();
+        for (Subscriber subscriber : subscribers) {
+            subscriber.signal();
+        }
+    }
+
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        long current = head.get();
+        Long resumeFrom = parseEventId(lastEventId);
+        boolean canResume = resumeFrom != null && resumeFrom <= current && current - resumeFrom <= ring.length();
+        Subscriber subscriber = new Subscriber(emitter, canResume ? resumeFrom : current);
+
+        try {
+            SseEmitter.SseEventBuilder hello = SseEmitter.event().reconnectTime(reconnectMillis);
+            if (lastEventId != null && !canResume) {
+                // The client missed changes that are no longer buffered, so it has to reload the catalog
+                resets.increment();
+                hello.id(eventId(current)).name(RESET_TYPE).data(reset(current), MediaType.APPLICATION_JSON);
+            } else {
+                hello.comment("connected");
+            }
+            emitter.send(hello);
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+            return emitter;
+        }
+
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        subscriber.signal();
+        log.debug("Change feed subscriber connected at sequence: {}, subscribers: {}", subscriber.lastSequence, subscribers.size());
+        return emitter;
+    }
+
+    @Scheduled(fixedDelayString = "${product.changes.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeatDue = true;
+            subscriber.signal();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        subscribers.clear();
+        executor.shutdownNow();
+    }
+
+    private int index(long sequence) {
+        return (int) (sequence & mask);
+    }
+
+    private String eventId(long sequence) {
+        return epoch + "-" + sequence;
+    }
+
+    private Long parseEventId(String eventId) {
+        if (eventId == null || !eventId.startsWith(epoch + "-")) {
+            return null;
+        }
+        try {
+            return Long.parseLong(eventId.substring(String.valueOf(epoch).length() + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private ProductChangeDTOResponse reset(long sequence) {
+        return ProductChangeDTOResponse.builder()
+                .sequence(sequence)
+                .type(RESET_TYPE)
+                .timestamp(LocalDateTime.now())
+                .build();
+    }
+
+    // Each subscriber is drained by at most one task at a time, so a slow client only holds up its own virtual
+    // thread while writers keep filling the ring; a client that falls a full ring behind gets a reset event
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean heartbeatDue;
+        private long lastSequence;
+
+        private Subscriber(SseEmitter emitter, long lastSequence) {
+            this.emitter = emitter;
+            this.lastSequence = lastSequence;
+        }
+
+        private void signal() {
+            if (draining.compareAndSet(false, true)) {
+                executor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                do {
+                    if (heartbeatDue) {
+                        heartbeatDue = false;
+                        emitter.send(SseEmitter.event().comment("heartbeat"));
+                    }
+                    sendPending();
+                    draining.set(false);
+                } while ((hasPending() || heartbeatDue) && draining.compareAndSet(false, true));
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Change feed subscriber disconnected: {}", e.getMessage());
+                subscribers.remove(this);
+                emitter.completeWithError(e);
+            }
+        }
+
+        private boolean hasPending() {
+            ProductChangeDTOResponse next = ring.get(index(lastSequence + 1));
+            return next != null && next.getSequence() > lastSequence;
+        }
+
+        private void sendPending() throws IOException {
+            while (true) {
+                long sequence = lastSequence + 1;
+                ProductChangeDTOResponse change = ring.get(index(sequence));
+                if (change == null || change.getSequence() < sequence) {
+                    return;
+                }
+                if (change.getSequence() > sequence) {
+                    long current = head.get();
+                    resets.increment();
+                    emitter.send(SseEmitter.event().id(eventId(current)).name(RESET_TYPE)
+                            .data(reset(current), MediaType.APPLICATION_JSON));
+                    lastSequence = current;
+                    continue;
+                }
+                emitter.send(SseEmitter.event().id(eventId(sequence)).name(change.getType())
+                        .data(change, MediaType.APPLICATION_JSON));
+                lastSequence = sequence;
+            }
+        }
+    }
+}
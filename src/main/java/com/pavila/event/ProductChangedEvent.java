@@ -0,0 +1,31 @@
+package com.pavila.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class ProductChangedEvent {
+
+    public enum Type { CREATED, UPDATED, DELETED, AVAILABILITY_CHANGED }
+
+    private Type type;
+    private Long productId;
+    private String name;
+
+    public static ProductChangedEvent created(Long productId, String name) {
+        return new ProductChangedEvent(Type.CREATED, productId, name);
+    }
+
+    public static ProductChangedEvent updated(Long productId, String name) {
+        return new ProductChangedEvent(Type.UPDATED, productId, name);
+    }
+
+    public static ProductChangedEvent deleted(Long productId) {
+        return new ProductChangedEvent(Type.DELETED, productId, null);
+    }
+
+    public static ProductChangedEvent availabilityChanged(Long productId) {
+        return new ProductChangedEvent(Type.AVAILABILITY_CHANGED, productId, null);
+    }
+}
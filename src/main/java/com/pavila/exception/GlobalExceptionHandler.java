@@ -1,8 +1,11 @@
 package com.pavila.exception;
 
 import com.pavila.model.dto.ApiError;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.http.HttpServletRequest;
-import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
@@ -15,53 +18,26 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
+import java.time.Clock;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static java.util.stream.Collectors.toList;
 
 @RestControllerAdvice
+@RequiredArgsConstructor
 public class GlobalExceptionHandler {
 
-    @ExceptionHandler({
-            Exception.class,
-            ObjectNotFoundException.class,
-            MethodArgumentTypeMismatchException.class,
-            HttpRequestMethodNotSupportedException.class,
-            HttpMediaTypeNotSupportedException.class,
-            HttpMessageNotReadableException.class,
-        })
-    public ResponseEntity<ApiError> handleAllExceptions(Exception exception,
-                                                           HttpServletRequest request,
-                                                           HttpServletResponse response){
-
-        ZoneId zoneId = ZoneId.of("America/Mexico_City");
-        LocalDateTime timestamp = LocalDateTime.now(zoneId);
-
-        if(exception instanceof ObjectNotFoundException objectNotFoundException){
-            return this.handleObjectNotFoundException(objectNotFoundException, request, response, timestamp);
-
-        }else if(exception instanceof MethodArgumentTypeMismatchException methodArgumentTypeMismatchException){
-            return this.handleMethodArgumentTypeMismatchException(methodArgumentTypeMismatchException, request, response, timestamp);
-
-        }else if(exception instanceof MethodArgumentNotValidException methodArgumentNotValidException){
-            return this.handleMethodArgumentNotValidException(methodArgumentNotValidException, request, response, timestamp);
-
-        }else if(exception instanceof HttpRequestMethodNotSupportedException httpRequestMethodNotSupportedException){
-            return this.handleHttpRequestMethodNotSupportedException(httpRequestMethodNotSupportedException, request, response, timestamp);
-        }else if(exception instanceof HttpMediaTypeNotSupportedException httpMediaTypeNotSupportedException){
-            return this.handleHttpMediaTypeNotSupportedException(httpMediaTypeNotSupportedException, request, response, timestamp);
-        }else if(exception instanceof HttpMessageNotReadableException httpMessageNotReadableException){
-            return this.handleHttpMessageNotReadableException(httpMessageNotReadableException, request, response, timestamp);
-        }else {
-            return this.handleException(exception, request, response, timestamp);
-
-        }
-    }
+    private static final Clock CLOCK = Clock.system(ZoneId.of("America/Mexico_City"));
 
+    private final MeterRegistry meterRegistry;
+    private final Map<Class<?>, Counter> errorCounters = new ConcurrentHashMap<>();
 
-    private ResponseEntity<ApiError> handleHttpMessageNotReadableException(HttpMessageNotReadableException httpMessageNotReadableException, HttpServletRequest request, HttpServletResponse response, LocalDateTime timestamp) {
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<ApiError> handleHttpMessageNotReadableException(HttpMessageNotReadableException httpMessageNotReadableException, HttpServletRequest request) {
 
         int httpStatus = HttpStatus.BAD_REQUEST.value();
         ApiError apiError = new ApiError(
@@ -71,15 +47,16 @@ public class GlobalExceptionHandler {
                 "Oops! Error reading the HTTP message body. " +
                         "Make sure the request is correctly formatted and contains valid data.",
                 httpMessageNotReadableException.getMessage(),
-                timestamp,
+                LocalDateTime.now(CLOCK),
                 null
         );
 
-        return ResponseEntity.status(httpStatus).body(apiError);
+        return this.respond(httpMessageNotReadableException, apiError);
 
     }
 
-    private ResponseEntity<ApiError> handleHttpMediaTypeNotSupportedException(HttpMediaTypeNotSupportedException httpMediaTypeNotSupportedException, HttpServletRequest request, HttpServletResponse response, LocalDateTime timestamp) {
+    @ExceptionHandler(HttpMediaTypeNotSupportedException.class)
+    public ResponseEntity<ApiError> handleHttpMediaTypeNotSupportedException(HttpMediaTypeNotSupportedException httpMediaTypeNotSupportedException, HttpServletRequest request) {
         int httpStatus = HttpStatus.UNSUPPORTED_MEDIA_TYPE.value();
         ApiError apiError = new ApiError(
                 httpStatus,
@@ -88,15 +65,16 @@ public class GlobalExceptionHandler {
                 "Unsupported Media Type: The server is unable to process the requested entity in the format provided in the request. " +
                         "Supported media types are: " + httpMediaTypeNotSupportedException.getSupportedMediaTypes() + " and you send: " + httpMediaTypeNotSupportedException.getContentType() ,
                 httpMediaTypeNotSupportedException.getMessage(),
-                timestamp,
+                LocalDateTime.now(CLOCK),
                 null
         );
 
-        return ResponseEntity.status(httpStatus).body(apiError);
+        return this.respond(httpMediaTypeNotSupportedException, apiError);
 
     }
 
-    private ResponseEntity<ApiError> handleHttpRequestMethodNotSupportedException(HttpRequestMethodNotSupportedException httpRequestMethodNotSupportedException, HttpServletRequest request, HttpServletResponse response, LocalDateTime timestamp) {
+    @ExceptionHandler(HttpRequestMethodNotSupportedException.class)
+    public ResponseEntity<ApiError> handleHttpRequestMethodNotSupportedException(HttpRequestMethodNotSupportedException httpRequestMethodNotSupportedException, HttpServletRequest request) {
 
         int httpStatus = HttpStatus.METHOD_NOT_ALLOWED.value();
         ApiError apiError = new ApiError(
@@ -105,15 +83,16 @@ public class GlobalExceptionHandler {
                 request.getMethod(),
                 "Oops! Method Not Allowed. Check the HTTP method of your request.",
                 httpRequestMethodNotSupportedException.getMessage(),
-                timestamp,
+                LocalDateTime.now(CLOCK),
                 null
         );
 
-        return ResponseEntity.status(httpStatus).body(apiError);
+        return this.respond(httpRequestMethodNotSupportedException, apiError);
 
     }
 
-    private ResponseEntity<ApiError> handleMethodArgumentNotValidException(MethodArgumentNotValidException ex, HttpServletRequest request, HttpServletResponse response, LocalDateTime timestamp) {
+    @ExceptionHandler(MethodArgumentNotValidException.class)
+    public ResponseEntity<ApiError> handleMethodArgumentNotValidException(MethodArgumentNotValidException ex, HttpServletRequest request) {
 
         int httpStatus = HttpStatus.BAD_REQUEST.value();
 
@@ -134,15 +113,16 @@ public class GlobalExceptionHandler {
                 "The request contains invalid or incomplete parameters. " +
                         "Please verify and provide the required information before trying again.",
                 "The request contains invalid or incomplete parameters. Please verify and provide the required information before trying again.",
-                timestamp,
+                LocalDateTime.now(CLOCK),
                 details
         );
 
-        return ResponseEntity.status(httpStatus).body(apiError);
+        return this.respond(ex, apiError);
 
     }
 
-    private ResponseEntity<ApiError> handleMethodArgumentTypeMismatchException(MethodArgumentTypeMismatchException methodArgumentTypeMismatchException, HttpServletRequest request, HttpServletResponse response, LocalDateTime timestamp) {
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<ApiError> handleMethodArgumentTypeMismatchException(MethodArgumentTypeMismatchException methodArgumentTypeMismatchException, HttpServletRequest request) {
         int httpStatus = HttpStatus.BAD_REQUEST.value();
         Object valueRejected = methodArgumentTypeMismatchException.getValue();
         String propertyName = methodArgumentTypeMismatchException.getName();
@@ -153,16 +133,33 @@ public class GlobalExceptionHandler {
                 request.getMethod(),
                 "Invalid Request: The provided value " + valueRejected + " does not have the expected type for the " + propertyName,
                 methodArgumentTypeMismatchException.getMessage(),
-                timestamp,
+                LocalDateTime.now(CLOCK),
                 null
         );
 
-        return ResponseEntity.status(httpStatus).body(apiError);
+        return this.respond(methodArgumentTypeMismatchException, apiError);
     }
 
 
 
-    private ResponseEntity<ApiError> handleObjectNotFoundException(ObjectNotFoundException objectNotFoundException, HttpServletRequest request, HttpServletResponse response, LocalDateTime timestamp) {
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<ApiError> handleInvalidRequestException(InvalidRequestException invalidRequestException, HttpServletRequest request) {
+        int httpStatus = HttpStatus.BAD_REQUEST.value();
+        ApiError apiError = new ApiError(
+                httpStatus,
+                request.getRequestURL().toString(),
+                request.getMethod(),
+                "Invalid Request: " + invalidRequestException.getMessage(),
+                invalidRequestException.getMessage(),
+                LocalDateTime.now(CLOCK),
+                null
+        );
+
+        return this.respond(invalidRequestException, apiError);
+    }
+
+    @ExceptionHandler(ObjectNotFoundException.class)
+    public ResponseEntity<ApiError> handleObjectNotFoundException(ObjectNotFoundException objectNotFoundException, HttpServletRequest request) {
         int httpStatus = HttpStatus.NOT_FOUND.value();
         ApiError apiError = new ApiError(
                 httpStatus,
@@ -171,14 +168,82 @@ public class GlobalExceptionHandler {
                 "I'm sorry, the requested information could not be found. " +
                         "Please check the URL or try another search.",
                 objectNotFoundException.getMessage(),
-                timestamp,
+                LocalDateTime.now(CLOCK),
+                null
+        );
+
+        return this.respond(objectNotFoundException, apiError);
+    }
+
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ApiError> handlePreconditionFailedException(PreconditionFailedException preconditionFailedException, HttpServletRequest request) {
+        int httpStatus = HttpStatus.PRECONDITION_FAILED.value();
+        ApiError apiError = new ApiError(
+                httpStatus,
+                request.getRequestURL().toString(),
+                request.getMethod(),
+                "The product has been modified since you last read it. " +
+                        "Fetch it again to get the current ETag and retry your changes.",
+                preconditionFailedException.getMessage(),
+                LocalDateTime.now(CLOCK),
                 null
         );
 
-        return ResponseEntity.status(httpStatus).body(apiError);
+        return this.respond(preconditionFailedException, apiError);
     }
 
-    private ResponseEntity<ApiError> handleException(Exception exception, HttpServletRequest request, HttpServletResponse response, LocalDateTime timestamp) {
+    @ExceptionHandler(IdempotencyKeyInProgressException.class)
+    public ResponseEntity<ApiError> handleIdempotencyKeyInProgressException(IdempotencyKeyInProgressException idempotencyKeyInProgressException, HttpServletRequest request) {
+        int httpStatus = HttpStatus.CONFLICT.value();
+        ApiError apiError = new ApiError(
+                httpStatus,
+                request.getRequestURL().toString(),
+                request.getMethod(),
+                "A request with the same Idempotency-Key is still being processed. Please retry it later.",
+                idempotencyKeyInProgressException.getMessage(),
+                LocalDateTime.now(CLOCK),
+                null
+        );
+
+        return this.respond(idempotencyKeyInProgressException, apiError);
+    }
+
+    @ExceptionHandler(IdempotencyKeyMismatchException.class)
+    public ResponseEntity<ApiError> handleIdempotencyKeyMismatchException(IdempotencyKeyMismatchException idempotencyKeyMismatchException, HttpServletRequest request) {
+        int httpStatus = HttpStatus.UNPROCESSABLE_ENTITY.value();
+        ApiError apiError = new ApiError(
+                httpStatus,
+                request.getRequestURL().toString(),
+                request.getMethod(),
+                "The Idempotency-Key was already used with a different request. " +
+                        "Use a new key for a different product.",
+                idempotencyKeyMismatchException.getMessage(),
+                LocalDateTime.now(CLOCK),
+                null
+        );
+
+        return this.respond(idempotencyKeyMismatchException, apiError);
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ApiError> handleOptimisticLockingFailureException(OptimisticLockingFailureException optimisticLockingFailureException, HttpServletRequest request) {
+        int httpStatus = HttpStatus.PRECONDITION_FAILED.value();
+        ApiError apiError = new ApiError(
+                httpStatus,
+                request.getRequestURL().toString(),
+                request.getMethod(),
+                "The product has been modified by another request. " +
+                        "Fetch it again to get the current ETag and retry your changes.",
+                optimisticLockingFailureException.getMessage(),
+                LocalDateTime.now(CLOCK),
+                null
+        );
+
+        return this.respond(optimisticLockingFailureException, apiError);
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<ApiError> handleException(Exception exception, HttpServletRequest request) {
         int httpStatus = HttpStatus.INTERNAL_SERVER_ERROR.value();
         ApiError apiError = new ApiError(
                 httpStatus,
@@ -186,13 +251,18 @@ public class GlobalExceptionHandler {
                 request.getMethod(),
                 "Oops! Something went wrong on our server. Please try again later.",
                 exception.getMessage(),
-                timestamp,
+                LocalDateTime.now(CLOCK),
                 null
         );
 
-        return ResponseEntity.status(httpStatus).body(apiError);
+        return this.respond(exception, apiError);
 
     }
-}
-
 
+    private ResponseEntity<ApiError> respond(Exception exception, ApiError apiError) {
+        errorCounters.computeIfAbsent(exception.getClass(), type -> meterRegistry.counter("api.errors",
+                "exception", type.getSimpleName(),
+                "status", String.valueOf(apiError.getHttpCode()))).increment();
+        return ResponseEntity.status(apiError.getHttpCode()).body(apiError);
+    }
+}
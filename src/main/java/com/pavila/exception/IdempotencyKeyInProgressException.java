@@ -0,0 +1,8 @@
+package com.pavila.exception;
+
+public class IdempotencyKeyInProgressException extends RuntimeException {
+
+    public IdempotencyKeyInProgressException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -0,0 +1,8 @@
+package com.pavila.exception;
+
+public class IdempotencyKeyMismatchException extends RuntimeException {
+
+    public IdempotencyKeyMismatchException(String message) {
+        super(message, null, false, false);
+    }
+}
@@ -3,6 +3,6 @@ package com.pavila.exception;
 public class ObjectNotFoundException extends RuntimeException {
 
     public ObjectNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
@@ -0,0 +1,118 @@
+package com.pavila.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pavila.admission.AdaptiveConcurrencyLimiter;
+import com.pavila.admission.TokenBucketRateLimiter;
+import com.pavila.event.ProductChangeFeed;
+import com.pavila.importer.ProductImportService;
+import com.pavila.model.dto.ApiError;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private static final List<String> LONG_RUNNING_PATHS = List.of("/api/v1/products/export", ProductImportService.PATH);
+
+    private final TokenBucketRateLimiter rateLimiter;
+    private final AdaptiveConcurrencyLimiter concurrencyLimiter;
+    private final ObjectMapper objectMapper;
+    private final Counter admitted;
+    private final Counter rateLimited;
+    private final Counter shed;
+
+    public AdmissionControlFilter(TokenBucketRateLimiter rateLimiter, AdaptiveConcurrencyLimiter concurrencyLimiter,
+                                  ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.objectMapper = objectMapper;
+        this.admitted = meterRegistry.counter("admission.requests", "outcome", "admitted");
+        this.rateLimited = meterRegistry.counter("admission.requests", "outcome", "rate_limited");
+        this.shed = meterRegistry.counter("admission.requests", "outcome", "shed");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return HttpMethod.OPTIONS.matches(request.getMethod())
+                || !request.getRequestURI().startsWith(request.getContextPath() + "/api/")
+                || request.getRequestURI().equals(request.getContextPath() + ProductChangeFeed.PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (rateLimiter != null) {
+            long waitNanos = rateLimiter.tryAcquire(request.getRemoteAddr());
+            if (waitNanos > 0) {
+                rateLimited.increment();
+                long retryAfterSeconds = Math.max(1, (long) Math.ceil(waitNanos / (double) TimeUnit.SECONDS.toNanos(1)));
+                reject(request, response, HttpStatus.TOO_MANY_REQUESTS, retryAfterSeconds,
+                        "You are sending too many requests. Please slow down and try again later.",
+                        "Rate limit exceeded for client " + request.getRemoteAddr());
+                return;
+            }
+        }
+
+        if (concurrencyLimiter == null || isLongRunning(request)) {
+            admitted.increment();
+            filterChain.doFilter(request, response);
+            return;
+        }
+        if (!concurrencyLimiter.tryAcquire()) {
+            shed.increment();
+            log.debug("Shedding {} {}: concurrency limit of {} reached", request.getMethod(), request.getRequestURI(), concurrencyLimiter.getLimit());
+            reject(request, response, HttpStatus.SERVICE_UNAVAILABLE, 1,
+                    "The server is busy right now. Please try again later.",
+                    "Concurrency limit of " + concurrencyLimiter.getLimit() + " requests reached");
+            return;
+        }
+        admitted.increment();
+        long start = System.nanoTime();
+        boolean overloaded = true;
+        try {
+            filterChain.doFilter(request, response);
+            overloaded = response.getStatus() == HttpStatus.SERVICE_UNAVAILABLE.value()
+                    || response.getStatus() == HttpStatus.GATEWAY_TIMEOUT.value();
+        } finally {
+            concurrencyLimiter.release(System.nanoTime() - start, overloaded);
+        }
+    }
+
+    // The export and imports last as long as the transfer, their latency says nothing about overload
+    private boolean isLongRunning(HttpServletRequest request) {
+        return LONG_RUNNING_PATHS.stream()
+                .anyMatch(path -> request.getRequestURI().startsWith(request.getContextPath() + path));
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, HttpStatus status, long retryAfterSeconds,
+                        String message, String backendMessage) throws IOException {
+        ApiError apiError = new ApiError(
+                status.value(),
+                request.getRequestURL().toString(),
+                request.getMethod(),
+                message,
+                backendMessage,
+                LocalDateTime.now(),
+                null
+        );
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), apiError);
+    }
+}
@@ -0,0 +1,73 @@
+package com.pavila.filter;
+
+import com.pavila.logging.SampledRequestTurboFilter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Slf4j
+public class RequestLogSamplingFilter extends OncePerRequestFilter {
+
+    public static final String REQUEST_ID_KEY = "request_id";
+
+    private final double defaultSampleRate;
+    private final Map<PathPattern, Double> endpointSampleRates = new LinkedHashMap<>();
+
+    public RequestLogSamplingFilter(double defaultSampleRate, Map<String, Double> endpointSampleRates) {
+        this.defaultSampleRate = defaultSampleRate;
+        endpointSampleRates.forEach((pattern, rate) ->
+                this.endpointSampleRates.put(PathPatternParser.defaultInstance.parse(pattern), rate));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith(request.getContextPath() + "/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        boolean sampled = random.nextDouble() < sampleRate(request);
+        MDC.put(REQUEST_ID_KEY, Long.toHexString(random.nextLong()));
+        if (sampled) {
+            MDC.put(SampledRequestTurboFilter.SAMPLED_KEY, "true");
+        }
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int status = response.getStatus();
+            if (sampled || status >= 500) {
+                log.info("method={} uri={} status={} duration_ms={} sampled={}", request.getMethod(),
+                        request.getRequestURI(), status, (System.nanoTime() - start) / 1_000_000, sampled);
+            }
+            MDC.remove(SampledRequestTurboFilter.SAMPLED_KEY);
+            MDC.remove(REQUEST_ID_KEY);
+        }
+    }
+
+    private double sampleRate(HttpServletRequest request) {
+        if (!endpointSampleRates.isEmpty()) {
+            PathContainer path = PathContainer.parsePath(request.getRequestURI().substring(request.getContextPath().length()));
+            for (Map.Entry<PathPattern, Double> entry : endpointSampleRates.entrySet()) {
+                if (entry.getKey().matches(path)) {
+                    return entry.getValue();
+                }
+            }
+        }
+        return defaultSampleRate;
+    }
+}
@@ -0,0 +1,187 @@
+package com.pavila.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pavila.exception.IdempotencyKeyInProgressException;
+import com.pavila.exception.IdempotencyKeyMismatchException;
+import com.pavila.exception.InvalidRequestException;
+import com.pavila.model.dto.ProductDTORequest;
+import com.pavila.model.dto.ProductDTOResponse;
+import com.pavila.model.entity.IdempotencyKey;
+import com.pavila.repository.IdempotencyKeyRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    public static final int MAX_KEY_LENGTH = 255;
+
+    private final ObjectMapper objectMapper;
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration ttl;
+    private final long waitTimeoutMillis;
+    private final boolean persistenceEnabled;
+    private final Cache<String, Entry> entries;
+
+    public IdempotencyService(ObjectMapper objectMapper,
+                              IdempotencyKeyRepository idempotencyKeyRepository,
+                              TransactionTemplate transactionTemplate,
+                              @Value("${product.idempotency.ttl:24h}") Duration ttl,
+                              @Value("${product.idempotency.max-keys:100000}") long maxKeys,
+                              @Value("${product.idempotency.wait-timeout-ms:10000}") long waitTimeoutMillis,
+                              @Value("${product.idempotency.persistence.enabled:false}") boolean persistenceEnabled) {
+        this.objectMapper = objectMapper;
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.ttl = ttl;
+        this.waitTimeoutMillis = waitTimeoutMillis;
+        this.persistenceEnabled = persistenceEnabled;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    public Result execute(String idempotencyKey, ProductDTORequest request, Supplier<ProductDTOResponse> action) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new InvalidRequestException("The Idempotency-Key must have between 1 and " + MAX_KEY_LENGTH + " characters");
+        }
+        String requestHash = hash(request);
+        Entry entry = new Entry(requestHash, new CompletableFuture<>());
+        Entry existing = entries.asMap().putIfAbsent(idempotencyKey, entry);
+        if (existing != null) {
+            checkSameRequest(idempotencyKey, existing.requestHash(), requestHash);
+            log.debug("Replaying response for Idempotency-Key: {}", idempotencyKey);
+            return new Result(await(idempotencyKey, existing.response()), true);
+        }
+
+        try {
+            Result result = persistenceEnabled
+                    ? executePersistent(idempotencyKey, requestHash, action)
+                    : new Result(action.get(), false);
+            entry.response().complete(result.product());
+            return result;
+        } catch (RuntimeException e) {
+            entries.asMap().remove(idempotencyKey, entry);
+            entry.response().completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${product.idempotency.persistence.purge-interval-ms:3600000}")
+    public void purgeExpiredKeys() {
+        if (!persistenceEnabled) {
+            return;
+        }
+        Integer purged = transactionTemplate.execute(status ->
+                idempotencyKeyRepository.deleteCreatedBefore(LocalDateTime.now().minus(ttl)));
+        log.debug("Purged {} expired idempotency keys", purged);
+    }
+
+    private Result executePersistent(String idempotencyKey, String requestHash, Supplier<ProductDTOResponse> action) {
+        Optional<IdempotencyKey> stored = findStored(idempotencyKey);
+        if (stored.isPresent()) {
+            return replay(stored.get(), requestHash);
+        }
+        try {
+            ProductDTOResponse product = transactionTemplate.execute(status -> {
+                ProductDTOResponse created = action.get();
+                idempotencyKeyRepository.insert(idempotencyKey, requestHash, toJson(created), LocalDateTime.now());
+                return created;
+            });
+            return new Result(product, false);
+        } catch (DataIntegrityViolationException e) {
+            // Another instance stored the key first, so the product it created is replayed and ours was rolled back
+            Optional<IdempotencyKey> winner = transactionTemplate.execute(status -> idempotencyKeyRepository.findById(idempotencyKey));
+            return replay(winner.orElseThrow(() -> e), requestHash);
+        }
+    }
+
+    // Keys are read in a read-write transaction so they come from the primary: a key stored moments ago by
+    // another instance may not have reached the replicas yet
+    private Optional<IdempotencyKey> findStored(String idempotencyKey) {
+        return transactionTemplate.execute(status -> {
+            Optional<IdempotencyKey> stored = idempotencyKeyRepository.findById(idempotencyKey);
+            if (stored.isPresent() && stored.get().getCreatedDate().isBefore(LocalDateTime.now().minus(ttl))) {
+                idempotencyKeyRepository.deleteById(idempotencyKey);
+                return Optional.empty();
+            }
+            return stored;
+        });
+    }
+
+    private Result replay(IdempotencyKey stored, String requestHash) {
+        checkSameRequest(stored.getKey(), stored.getRequestHash(), requestHash);
+        try {
+            return new Result(objectMapper.readValue(stored.getResponse(), ProductDTOResponse.class), true);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored response for Idempotency-Key " + stored.getKey() + " cannot be read", e);
+        }
+    }
+
+    private ProductDTOResponse await(String idempotencyKey, CompletableFuture<ProductDTOResponse> response) {
+        try {
+            return response.get(waitTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyInProgressException("Interrupted while waiting for the request with Idempotency-Key " + idempotencyKey);
+        } catch (TimeoutException e) {
+            throw new IdempotencyKeyInProgressException("A request with Idempotency-Key " + idempotencyKey + " is still in progress");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private void checkSameRequest(String idempotencyKey, String storedHash, String requestHash) {
+        if (!storedHash.equals(requestHash)) {
+            throw new IdempotencyKeyMismatchException("The Idempotency-Key " + idempotencyKey + " was already used with a different request");
+        }
+    }
+
+    private String hash(ProductDTORequest request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+        } catch (NoSuchAlgorithmException | JsonProcessingException e) {
+            throw new IllegalStateException("The request cannot be hashed", e);
+        }
+    }
+
+    private String toJson(ProductDTOResponse product) {
+        try {
+            return objectMapper.writeValueAsString(product);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("The response cannot be stored", e);
+        }
+    }
+
+    public record Result(ProductDTOResponse product, boolean replayed) {
+    }
+
+    private record Entry(String requestHash, CompletableFuture<ProductDTOResponse> response) {
+    }
+}
@@ -0,0 +1,95 @@
+package com.pavila.importer;
+
+import com.pavila.model.dto.ProductImportErrorDTOResponse;
+import com.pavila.model.dto.ProductImportJobDTOResponse;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Progress of one import, updated by the uploading thread and read by the job status endpoint
+class ProductImportJob {
+
+    private final String id;
+    private final String format;
+    private final int maxErrors;
+    private final LocalDateTime startedAt = LocalDateTime.now();
+    private final long startNanos = System.nanoTime();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong updated = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final List<ProductImportErrorDTOResponse> errors = new ArrayList<>();
+
+    private volatile ProductImportJobDTOResponse.Status status = ProductImportJobDTOResponse.Status.RUNNING;
+    private volatile String message;
+    private volatile LocalDateTime finishedAt;
+    private volatile long elapsedNanos;
+    private boolean errorsTruncated;
+
+    ProductImportJob(String id, String format, int maxErrors) {
+        this.id = id;
+        this.format = format;
+        this.maxErrors = maxErrors;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    // Rows written, several rows for the same product count once in updated
+    void written(long rows, long createdProducts, long updatedProducts) {
+        processed.addAndGet(rows);
+        created.addAndGet(createdProducts);
+        updated.addAndGet(updatedProducts);
+    }
+
+    void failed(long line, List<String> rowErrors) {
+        processed.incrementAndGet();
+        failed.incrementAndGet();
+        synchronized (errors) {
+            if (errors.size() < maxErrors) {
+                errors.add(new ProductImportErrorDTOResponse(line, rowErrors));
+            } else {
+                errorsTruncated = true;
+            }
+        }
+    }
+
+    void finish(ProductImportJobDTOResponse.Status finalStatus, String finalMessage) {
+        elapsedNanos = System.nanoTime() - startNanos;
+        finishedAt = LocalDateTime.now();
+        message = finalMessage;
+        status = finalStatus;
+    }
+
+    ProductImportJobDTOResponse toResponse() {
+        ProductImportJobDTOResponse.Status currentStatus = status;
+        long elapsedMillis = (currentStatus == ProductImportJobDTOResponse.Status.RUNNING
+                ? System.nanoTime() - startNanos : elapsedNanos) / 1_000_000;
+        long processedRows = processed.get();
+        List<ProductImportErrorDTOResponse> errorsCopy;
+        boolean truncated;
+        synchronized (errors) {
+            errorsCopy = List.copyOf(errors);
+            truncated = errorsTruncated;
+        }
+        return ProductImportJobDTOResponse.builder()
+                .id(id)
+                .status(currentStatus)
+                .format(format)
+                .processed(processedRows)
+                .created(created.get())
+                .updated(updated.get())
+                .failed(failed.get())
+                .elapsedMillis(elapsedMillis)
+                .rowsPerSecond(elapsedMillis == 0 ? processedRows : processedRows * 1000L / elapsedMillis)
+                .message(message)
+                .startedAt(startedAt)
+                .finishedAt(finishedAt)
+                .errors(errorsCopy)
+                .errorsTruncated(truncated)
+                .build();
+    }
+}
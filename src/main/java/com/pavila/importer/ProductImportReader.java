@@ -0,0 +1,206 @@
+package com.pavila.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pavila.exception.InvalidRequestException;
+import com.pavila.model.dto.ProductDTORequest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+abstract class ProductImportReader {
+
+    private final BufferedReader reader;
+    private long line;
+
+    private ProductImportReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    static ProductImportReader csv(BufferedReader reader) throws IOException {
+        return new CsvReader(reader);
+    }
+
+    static ProductImportReader ndjson(BufferedReader reader, ObjectMapper objectMapper) {
+        return new NdjsonReader(reader, objectMapper);
+    }
+
+    // Returns null at the end of the input, blank lines are skipped
+    Row next() throws IOException {
+        String text;
+        do {
+            text = readLine();
+            if (text == null) {
+                return null;
+            }
+        } while (text.isBlank());
+        return parse(line, text);
+    }
+
+    String readLine() throws IOException {
+        String text = reader.readLine();
+        if (text != null) {
+            line++;
+        }
+        return text;
+    }
+
+    abstract Row parse(long line, String text);
+
+    // available is null when the row does not set it, so an update keeps the stored value
+    record Row(long line, Long id, ProductDTORequest product, Boolean available, List<String> errors) {
+
+        static Row invalid(long line, String error) {
+            return new Row(line, null, null, null, List.of(error));
+        }
+    }
+
+    private static final class CsvReader extends ProductImportReader {
+
+        private static final List<String> COLUMNS = List.of("id", "name", "price", "available");
+
+        private final Map<String, Integer> columns;
+
+        private CsvReader(BufferedReader reader) throws IOException {
+            super(reader);
+            String header = readLine();
+            if (header == null) {
+                throw new InvalidRequestException("The CSV file is empty, it must start with a header row");
+            }
+            List<String> names = split(header.startsWith("\uFEFF") ? header.substring(1) : header);
+            Map<String, Integer> indexes = new HashMap<>();
+            for (int i = 0; i < names.size(); i++) {
+                String name = names.get(i).trim().toLowerCase(Locale.ROOT);
+                if (!COLUMNS.contains(name)) {
+                    throw new InvalidRequestException("Invalid CSV column " + name + ", allowed columns are " + COLUMNS);
+                }
+                if (indexes.put(name, i) != null) {
+                    throw new InvalidRequestException("Duplicated CSV column " + name);
+                }
+            }
+            if (!indexes.containsKey("name") || !indexes.containsKey("price")) {
+                throw new InvalidRequestException("The CSV header must contain the name and price columns");
+            }
+            this.columns = indexes;
+        }
+
+        @Override
+        Row parse(long line, String text) {
+            List<String> values = split(text);
+            if (values.size() != columns.size()) {
+                return Row.invalid(line, "Expected " + columns.size() + " columns but found " + values.size());
+            }
+            List<String> errors = new ArrayList<>();
+            Long id = null;
+            String idValue = value(values, "id");
+            if (idValue != null) {
+                try {
+                    id = Long.parseLong(idValue);
+                } catch (NumberFormatException e) {
+                    errors.add("id: " + idValue + " is not a valid ID");
+                }
+            }
+            BigDecimal price = null;
+            String priceValue = value(values, "price");
+            if (priceValue != null) {
+                try {
+                    price = new BigDecimal(priceValue);
+                } catch (NumberFormatException e) {
+                    errors.add("price: " + priceValue + " is not a number");
+                }
+            }
+            Boolean available = null;
+            String availableValue = value(values, "available");
+            if (availableValue != null) {
+                if (!availableValue.equalsIgnoreCase("true") && !availableValue.equalsIgnoreCase("false")) {
+                    errors.add("available: " + availableValue + " must be true or false");
+                }
+                available = Boolean.parseBoolean(availableValue);
+            }
+            ProductDTORequest product = ProductDTORequest.builder()
+                    .name(value(values, "name"))
+                    .price(price)
+                    .available(Boolean.TRUE.equals(available))
+                    .build();
+            return new Row(line, id, product, available, errors);
+        }
+
+        private String value(List<String> values, String column) {
+            Integer index = columns.get(column);
+            if (index == null) {
+                return null;
+            }
+            String value = values.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+
+        // RFC 4180 fields on a single line: quoted fields may contain commas and doubled quotes
+        private static List<String> split(String text) {
+            List<String> values = new ArrayList<>();
+            StringBuilder value = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                        value.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        value.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    values.add(value.toString());
+                    value.setLength(0);
+                } else {
+                    value.append(c);
+                }
+            }
+            values.add(value.toString());
+            return values;
+        }
+    }
+
+    private static final class NdjsonReader extends ProductImportReader {
+
+        private final ObjectMapper objectMapper;
+
+        private NdjsonReader(BufferedReader reader, ObjectMapper objectMapper) {
+            super(reader);
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        Row parse(long line, String text) {
+            try {
+                JsonNode node = objectMapper.readTree(text);
+                if (!node.isObject()) {
+                    return Row.invalid(line, "Each line must be a JSON object");
+                }
+                JsonNode id = node.get("id");
+                if (id != null && !id.isNull() && !id.canConvertToLong()) {
+                    return Row.invalid(line, "id: " + id + " is not a valid ID");
+                }
+                JsonNode available = node.get("available");
+                if (available != null && !available.isNull() && !available.isBoolean()) {
+                    return Row.invalid(line, "available: " + available + " must be true or false");
+                }
+                return new Row(line, id == null || id.isNull() ? null : id.asLong(),
+                        objectMapper.treeToValue(node, ProductDTORequest.class),
+                        available == null || available.isNull() ? null : available.booleanValue(), List.of());
+            } catch (JsonProcessingException e) {
+                return Row.invalid(line, e.getOriginalMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.pavila.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pavila.config.CacheConfig;
+import com.pavila.event.ProductChangedEvent;
+import com.pavila.exception.InvalidRequestException;
+import com.pavila.exception.ObjectNotFoundException;
+import com.pavila.mapper.ProductMapper;
+import com.pavila.model.dto.ProductImportJobDTOResponse;
+import com.pavila.model.entity.Product;
+import com.pavila.repository.ProductRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class ProductImportService {
+
+    public static final String PATH = "/api/v1/products/imports";
+    public static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final ProductRepository productRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CacheManager cacheManager;
+    private final int chunkSize;
+    private final int maxErrors;
+    private final Cache<String, ProductImportJob> jobs;
+    private final Counter createdRows;
+    private final Counter updatedRows;
+    private final Counter failedRows;
+
+    public ProductImportService(ProductRepository productRepository,
+                                EntityManager entityManager,
+                                ObjectMapper objectMapper,
+                                Validator validator,
+                                TransactionTemplate transactionTemplate,
+                                ApplicationEventPublisher eventPublisher,
+                                CacheManager cacheManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${product.import.chunk-size:500}") int chunkSize,
+                                @Value("${product.import.max-errors:100}") int maxErrors,
+                                @Value("${product.import.max-jobs:100}") long maxJobs,
+                                @Value("${product.import.job-ttl:24h}") Duration jobTtl) {
+        this.productRepository = productRepository;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.cacheManager = cacheManager;
+        this.chunkSize = chunkSize;
+        this.maxErrors = maxErrors;
+        this.jobs = Caffeine.newBuilder()
+                .maximumSize(maxJobs)
+                .expireAfterWrite(jobTtl)
+                .build();
+        this.createdRows = meterRegistry.counter("product.import.rows", "outcome", "created");
+        this.updatedRows = meterRegistry.counter("product.import.rows", "outcome", "updated");
+        this.failedRows = meterRegistry.counter("product.import.rows", "outcome", "failed");
+    }
+
+    // Reads the upload line by line and writes it in chunks, so memory stays bounded by the chunk size
+    // whatever the size of the file. The job is registered before the first row so its progress can be polled.
+    public ProductImportJobDTOResponse importProducts(InputStream input, MediaType contentType) {
+        Charset charset = contentType.getCharset() == null ? StandardCharsets.UTF_8 : contentType.getCharset();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, charset));
+        String format;
+        ProductImportReader rows;
+        try {
+            if (contentType.isCompatibleWith(MediaType.APPLICATION_NDJSON)) {
+                format = "ndjson";
+                rows = ProductImportReader.ndjson(reader, objectMapper);
+            } else if (contentType.isCompatibleWith(MediaType.parseMediaType(TEXT_CSV_VALUE))) {
+                format = "csv";
+                rows = ProductImportReader.csv(reader);
+            } else {
+                throw new InvalidRequestException("Unsupported import format " + contentType
+                        + ", use " + TEXT_CSV_VALUE + " or " + MediaType.APPLICATION_NDJSON_VALUE);
+            }
+        } catch (IOException e) {
+            throw new InvalidRequestException("The import file could not be read: " + e.getMessage());
+        }
+
+        ProductImportJob job = new ProductImportJob(UUID.randomUUID().toString(), format, maxErrors);
+        jobs.put(job.getId(), job);
+        log.info("Import {} started with format: {}", job.getId(), format);
+
+        List<ProductImportReader.Row> chunk = new ArrayList<>(chunkSize);
+        try {
+            for (ProductImportReader.Row row = rows.next(); row != null; row = rows.next()) {
+                List<String> errors = validate(row);
+                if (!errors.isEmpty()) {
+                    fail(job, row.line(), errors);
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() == chunkSize) {
+                    writeChunk(job, chunk);
+                    chunk.clear();
+                }
+            }
+            writeChunk(job, chunk);
+            job.finish(ProductImportJobDTOResponse.Status.COMPLETED, null);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Import {} stopped: {}", job.getId(), errorMessage(e));
+            job.finish(ProductImportJobDTOResponse.Status.FAILED, "The import stopped: " + errorMessage(e));
+        }
+
+        ProductImportJobDTOResponse response = job.toResponse();
+        log.info("Import {} {} {} rows ({} created, {} updated, {} failed) in {} ms ({} rows/s)", job.getId(),
+                response.getStatus(), response.getProcessed(), response.getCreated(), response.getUpdated(),
+                response.getFailed(), response.getElapsedMillis(), response.getRowsPerSecond());
+        return response;
+    }
+
+    public ProductImportJobDTOResponse findJob(String jobId) {
+        ProductImportJob job = jobs.getIfPresent(jobId);
+        if (job == null) {
+            throw new ObjectNotFoundException("Import job not found by id " + jobId);
+        }
+        return job.toResponse();
+    }
+
+    public List<ProductImportJobDTOResponse> findJobs() {
+        return jobs.asMap().values().stream()
+                .map(ProductImportJob::toResponse)
+                .sorted(Comparator.comparing(ProductImportJobDTOResponse::getStartedAt).reversed())
+                .toList();
+    }
+
+    private void writeChunk(ProductImportJob job, List<ProductImportReader.Row> chunk) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            ChunkResult result = transactionTemplate.execute(status -> upsertChunk(chunk));
+            job.written(chunk.size() - result.missing().size(), result.created(), result.updated());
+            createdRows.increment(result.created());
+            updatedRows.increment(result.updated());
+            result.missing().forEach(row -> fail(job, row.line(), List.of("Product not found by id " + row.id())));
+        } catch (RuntimeException e) {
+            log.warn("Import {} failed to write {} rows: {}", job.getId(), chunk.size(), errorMessage(e));
+            chunk.forEach(row -> fail(job, row.line(), List.of(errorMessage(e))));
+        }
+    }
+
+    // Rows with an id update that product, the rest are inserted in batches. A product repeated in the chunk
+    // takes the values of its last row and counts as one update.
+    private ChunkResult upsertChunk(List<ProductImportReader.Row> chunk) {
+        List<Long> ids = chunk.stream().map(ProductImportReader.Row::id).filter(Objects::nonNull).distinct().toList();
+        Map<Long, Product> existing = ids.isEmpty() ? Map.of() : productRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        List<Product> inserted = new ArrayList<>();
+        Map<Long, Product> updated = new LinkedHashMap<>();
+        List<ProductImportReader.Row> missing = new ArrayList<>();
+        for (ProductImportReader.Row row : chunk) {
+            if (row.id() == null) {
+                Product product = ProductMapper.toEntity(row.product());
+                if (row.available() != null) {
+                    product.setAvailable(row.available());
+                }
+                inserted.add(product);
+                continue;
+            }
+            Product product = existing.get(row.id());
+            if (product == null) {
+                missing.add(row);
+                continue;
+            }
+            product.setName(row.product().getName());
+            product.setPrice(row.product().getPrice());
+            if (row.available() != null) {
+                product.setAvailable(row.available());
+            }
+            updated.put(product.getId(), product);
+        }
+
+        productRepository.saveAll(inserted);
+        entityManager.flush();
+        org.springframework.cache.Cache productsCache = cacheManager.getCache(CacheConfig.PRODUCTS_CACHE);
+        for (Product product : updated.values()) {
+            if (productsCache != null) {
+                productsCache.evict(product.getId());
+            }
+            eventPublisher.publishEvent(ProductChangedEvent.updated(product.getId(), product.getName()));
+        }
+        inserted.forEach(product -> eventPublisher.publishEvent(ProductChangedEvent.created(product.getId(), product.getName())));
+        entityManager.clear();
+        return new ChunkResult(inserted.size(), updated.size(), missing);
+    }
+
+    private static String errorMessage(Exception e) {
+        return e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+    }
+
+    private List<String> validate(ProductImportReader.Row row) {
+        if (!row.errors().isEmpty() || row.product() == null) {
+            return row.errors();
+        }
+        return validator.validate(row.product()).stream()
+                .map(violation -> String.format("%s: %s", violation.getPropertyPath(), violation.getMessage()))
+                .toList();
+    }
+
+    private void fail(ProductImportJob job, long line, List<String> errors) {
+        job.failed(line, errors);
+        failedRows.increment();
+    }
+
+    private record ChunkResult(int created, int updated, List<ProductImportReader.Row> missing) {
+    }
+}
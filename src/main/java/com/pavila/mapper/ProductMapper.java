@@ -0,0 +1,32 @@
+package com.pavila.mapper;
+
+import com.pavila.model.dto.ProductDTORequest;
+import com.pavila.model.dto.ProductDTOResponse;
+import com.pavila.model.entity.Product;
+
+public final class ProductMapper {
+
+    private ProductMapper() {
+    }
+
+    public static ProductDTOResponse toResponse(Product product) {
+        return ProductDTOResponse.builder()
+                .id(product.getId())
+                .name(product.getName())
+                .price(product.getPrice())
+                .available(product.isAvailable())
+                .createdDate(product.getCreatedDate())
+                .lastModifiedDate(product.getLastModifiedDate())
+                .version(product.getVersion())
+                .build();
+    }
+
+    // New products are created available whatever the request says, updates apply its availability
+    public static Product toEntity(ProductDTORequest productRequest) {
+        return Product.builder()
+                .name(productRequest.getName())
+                .price(productRequest.getPrice())
+                .available(true)
+                .build();
+    }
+}
@@ -0,0 +1,22 @@
+package com.pavila.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+public class QueryCountingStatementInspector implements StatementInspector {
+
+    private static final ThreadLocal<int[]> QUERY_COUNT = ThreadLocal.withInitial(() -> new int[1]);
+
+    @Override
+    public String inspect(String sql) {
+        QUERY_COUNT.get()[0]++;
+        return sql;
+    }
+
+    public static void reset() {
+        QUERY_COUNT.get()[0] = 0;
+    }
+
+    public static int count() {
+        return QUERY_COUNT.get()[0];
+    }
+}
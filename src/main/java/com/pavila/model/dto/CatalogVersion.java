@@ -0,0 +1,14 @@
+package com.pavila.model.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@AllArgsConstructor
+public class CatalogVersion {
+
+    private Long count;
+    private LocalDateTime lastModified;
+}
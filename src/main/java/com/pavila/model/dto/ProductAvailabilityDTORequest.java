@@ -0,0 +1,29 @@
+package com.pavila.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ProductAvailabilityDTORequest {
+
+    @NotEmpty(message = "The ids field cannot be empty.")
+    @Size(max = 1000, message = "A maximum of 1000 ids can be sent per request.")
+    private List<@NotNull(message = "The ids cannot contain null values.") Long> ids;
+    @NotNull(message = "The availability status must not be null")
+    private Boolean available;
+}
@@ -0,0 +1,27 @@
+package com.pavila.model.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductFilter {
+
+    @Schema(description = "Only products with this availability")
+    private Boolean available;
+    @Schema(description = "Minimum price, inclusive")
+    private BigDecimal minPrice;
+    @Schema(description = "Maximum price, inclusive")
+    private BigDecimal maxPrice;
+    @Schema(description = "Only products whose name starts with this value")
+    private String name;
+    @Schema(description = "Sort field: price, created_date or name. Prefix with - for descending order", example = "-price")
+    private String sort;
+}
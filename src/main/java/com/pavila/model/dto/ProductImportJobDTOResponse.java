@@ -0,0 +1,39 @@
+package com.pavila.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductImportJobDTOResponse {
+
+    public enum Status { RUNNING, COMPLETED, FAILED }
+
+    private String id;
+    private Status status;
+    private String format;
+    private long processed;
+    private long created;
+    private long updated;
+    private long failed;
+    private long elapsedMillis;
+    private long rowsPerSecond;
+    private String message;
+
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime startedAt;
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
+    private LocalDateTime finishedAt;
+
+    private List<ProductImportErrorDTOResponse> errors;
+    private boolean errorsTruncated;
+}
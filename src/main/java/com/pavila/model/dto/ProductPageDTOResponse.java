@@ -0,0 +1,21 @@
+package com.pavila.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProductPageDTOResponse {
+
+    private List<ProductDTOResponse> items;
+    private int limit;
+    private boolean hasMore;
+    private String nextCursor;
+}
@@ -0,0 +1,20 @@
+package com.pavila.model.dto;
+
+import com.fasterxml.jackson.databind.PropertyNamingStrategies;
+import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+@JsonNaming(PropertyNamingStrategies.SnakeCaseStrategy.class)
+public class ProductSearchDTOResponse {
+
+    private String query;
+    private int total;
+    private int page;
+    private int size;
+    private List<ProductSearchHitDTOResponse> items;
+}
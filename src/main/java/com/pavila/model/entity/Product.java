@@ -3,8 +3,12 @@ package com.pavila.model.entity;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.databind.PropertyNamingStrategies;
 import com.fasterxml.jackson.databind.annotation.JsonNaming;
+import com.pavila.config.HibernateCacheConfig;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
 import org.springframework.boot.context.properties.bind.DefaultValue;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
@@ -19,17 +23,36 @@ import java.time.LocalDateTime;
 @Setter
 @Builder
 @Entity
+@DynamicUpdate
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = HibernateCacheConfig.PRODUCT_REGION)
 @EntityListeners(AuditingEntityListener.class)
-@Table(name = "products")
+@Table(name = "products", indexes = {
+        @Index(name = "idx_products_available_price", columnList = "available, price"),
+        @Index(name = "idx_products_price", columnList = "price"),
+        @Index(name = "idx_products_name", columnList = "name"),
+        @Index(name = "idx_products_created_date", columnList = "created_date")
+})
 public class Product {
 
+    public static final String ID_SEQUENCE_TABLE = "product_id_sequence";
+    public static final String ID_SEQUENCE_NAME = "products";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "product_id_generator")
+    @TableGenerator(name = "product_id_generator", table = ID_SEQUENCE_TABLE,
+            pkColumnName = "sequence_name", valueColumnName = "next_val",
+            pkColumnValue = ID_SEQUENCE_NAME, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
     private String name;
     private BigDecimal price;
     private boolean available;
 
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     @CreatedDate
     @Column(nullable = false, updatable = false)
     @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
@@ -40,10 +63,5 @@ public class Product {
     @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
     private LocalDateTime lastModifiedDate;
 
-    @PrePersist
-    public void setAvailable(){
-        this.available = true;
-    }
-
 
 }
@@ -0,0 +1,22 @@
+package com.pavila.repository;
+
+import com.pavila.model.entity.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+
+    @Modifying
+    @Query(value = "insert into idempotency_keys (idempotency_key, request_hash, response, created_date) " +
+            "values (:key, :requestHash, :response, :createdDate)", nativeQuery = true)
+    void insert(@Param("key") String key, @Param("requestHash") String requestHash,
+                @Param("response") String response, @Param("createdDate") LocalDateTime createdDate);
+
+    @Modifying
+    @Query("delete from IdempotencyKey k where k.createdDate < :cutoff")
+    int deleteCreatedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,56 @@
+package com.pavila.repository;
+
+import com.pavila.model.entity.Product;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+// With ddl-auto Hibernate may create product_id_sequence starting at 1 on a database that already has products,
+// and the ids it hands out would collide with them. Before the application serves requests the sequence is
+// raised above the largest existing id, a sequence that is already ahead is left as it is.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductIdSequenceInitializer {
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void initialize() {
+        transactionTemplate.executeWithoutResult(status -> {
+            long maxId = ((Number) entityManager.createNativeQuery("select coalesce(max(id), 0) from products")
+                    .getSingleResult()).longValue();
+            if (maxId == 0) {
+                return;
+            }
+            // The pooled optimizer hands out the allocation size ids below the value it reads
+            long required = maxId + Product.ID_ALLOCATION_SIZE + 1;
+            List<?> current = entityManager.createNativeQuery("select next_val from " + Product.ID_SEQUENCE_TABLE
+                            + " where sequence_name = :name for update")
+                    .setParameter("name", Product.ID_SEQUENCE_NAME)
+                    .getResultList();
+            if (current.isEmpty()) {
+                entityManager.createNativeQuery("insert into " + Product.ID_SEQUENCE_TABLE
+                                + " (sequence_name, next_val) values (:name, :value)")
+                        .setParameter("name", Product.ID_SEQUENCE_NAME)
+                        .setParameter("value", required)
+                        .executeUpdate();
+            } else if (((Number) current.get(0)).longValue() < required) {
+                entityManager.createNativeQuery("update " + Product.ID_SEQUENCE_TABLE
+                                + " set next_val = :value where sequence_name = :name")
+                        .setParameter("name", Product.ID_SEQUENCE_NAME)
+                        .setParameter("value", required)
+                        .executeUpdate();
+            } else {
+                return;
+            }
+            log.info("Product id sequence moved to {} above the largest existing id {}", required, maxId);
+        });
+    }
+}
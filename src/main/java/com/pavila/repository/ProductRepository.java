@@ -1,7 +1,69 @@
 package com.pavila.repository;
 
+import com.pavila.model.dto.CatalogVersion;
+import com.pavila.model.dto.ProductDTOResponse;
 import com.pavila.model.entity.Product;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
-public interface ProductRepository extends JpaRepository<Product, Long> {
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductRepositoryCustom {
+
+    String SELECT_PRODUCT_RESPONSE = "select new com.pavila.model.dto.ProductDTOResponse(" +
+            "p.id, p.name, p.price, p.available, p.createdDate, p.lastModifiedDate, p.version) from Product p";
+
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @Query(SELECT_PRODUCT_RESPONSE + " where p.id = :productId")
+    Optional<ProductDTOResponse> findProjectedById(@Param("productId") Long productId);
+
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    @Query("select new com.pavila.model.dto.CatalogVersion(count(p), max(coalesce(p.lastModifiedDate, p.createdDate))) from Product p")
+    CatalogVersion findCatalogVersion();
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Product p set p.available = case when p.available = true then false else true end, " +
+            "p.lastModifiedDate = :modifiedDate, p.version = p.version + 1 where p.id = :productId")
+    int toggleAvailability(@Param("productId") Long productId, @Param("modifiedDate") LocalDateTime modifiedDate);
+
+    // Locks the rows so the ids stay valid until the bulk update or delete that follows commits
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p.id from Product p where p.id in :productIds")
+    List<Long> lockExistingIds(@Param("productIds") Collection<Long> productIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Product p set p.available = :available, p.lastModifiedDate = :modifiedDate, " +
+            "p.version = p.version + 1 where p.id in :productIds")
+    int updateAvailability(@Param("productIds") Collection<Long> productIds, @Param("available") boolean available,
+                           @Param("modifiedDate") LocalDateTime modifiedDate);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Product p where p.id = :productId")
+    int deleteProductById(@Param("productId") Long productId);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("delete from Product p where p.id in :productIds")
+    int deleteProductsByIds(@Param("productIds") Collection<Long> productIds);
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "1000"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HINT_CACHEABLE, value = "false")
+    })
+    @Query(SELECT_PRODUCT_RESPONSE + " order by p.id")
+    Stream<ProductDTOResponse> streamAllProjected();
 }
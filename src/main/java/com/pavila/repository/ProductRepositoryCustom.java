@@ -0,0 +1,17 @@
+package com.pavila.repository;
+
+import com.pavila.model.dto.ProductDTOResponse;
+import com.pavila.model.entity.Product;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Set;
+
+public interface ProductRepositoryCustom {
+
+    List<ProductDTOResponse> findAllProjected(Specification<Product> specification, Sort sort, Limit limit);
+
+    List<ProductDTOResponse> findAllProjected(Specification<Product> specification, Sort sort, Limit limit, Set<String> attributes);
+}
@@ -0,0 +1,101 @@
+package com.pavila.repository;
+
+import com.pavila.model.dto.ProductDTOResponse;
+import com.pavila.model.entity.Product;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+public class ProductRepositoryImpl implements ProductRepositoryCustom {
+
+    // A full cursor page plus the row that tells whether there is a next one
+    private static final int MAX_CACHED_ROWS = 101;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ProductDTOResponse> findAllProjected(Specification<Product> specification, Sort sort, Limit limit) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductDTOResponse> query = builder.createQuery(ProductDTOResponse.class);
+        Root<Product> root = query.from(Product.class);
+        query.select(builder.construct(ProductDTOResponse.class,
+                root.get("id"), root.get("name"), root.get("price"), root.get("available"),
+                root.get("createdDate"), root.get("lastModifiedDate"), root.get("version")));
+
+        return createQuery(query, root, builder, specification, sort, limit).getResultList();
+    }
+
+    @Override
+    public List<ProductDTOResponse> findAllProjected(Specification<Product> specification, Sort sort, Limit limit, Set<String> attributes) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<Product> root = query.from(Product.class);
+        List<Selection<?>> selections = new ArrayList<>(attributes.size());
+        for (String attribute : attributes) {
+            selections.add(root.get(attribute).alias(attribute));
+        }
+        query.multiselect(selections);
+
+        List<Tuple> rows = createQuery(query, root, builder, specification, sort, limit).getResultList();
+        List<ProductDTOResponse> products = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            products.add(toResponse(row, attributes));
+        }
+        return products;
+    }
+
+    private <T> TypedQuery<T> createQuery(CriteriaQuery<T> query, Root<Product> root, CriteriaBuilder builder,
+                                          Specification<Product> specification, Sort sort, Limit limit) {
+        Predicate predicate = specification == null ? null : specification.toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (sort != null && sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, builder));
+        }
+
+        TypedQuery<T> typedQuery = entityManager.createQuery(query);
+        if (limit != null && limit.isLimited()) {
+            typedQuery.setMaxResults(limit.max());
+            // Each query cache entry holds the projected rows, so only bounded pages and lookups are cached
+            typedQuery.setHint(HibernateHints.HINT_CACHEABLE, limit.max() <= MAX_CACHED_ROWS);
+        }
+        return typedQuery;
+    }
+
+    private ProductDTOResponse toResponse(Tuple row, Set<String> attributes) {
+        ProductDTOResponse product = new ProductDTOResponse();
+        for (String attribute : attributes) {
+            Object value = row.get(attribute);
+            switch (attribute) {
+                case "id" -> product.setId((Long) value);
+                case "name" -> product.setName((String) value);
+                case "price" -> product.setPrice((BigDecimal) value);
+                case "available" -> product.setAvailable((Boolean) value);
+                case "createdDate" -> product.setCreatedDate((LocalDateTime) value);
+                case "lastModifiedDate" -> product.setLastModifiedDate((LocalDateTime) value);
+                case "version" -> product.setVersion((Long) value);
+                default -> throw new IllegalArgumentException("Unknown product attribute " + attribute);
+            }
+        }
+        return product;
+    }
+}
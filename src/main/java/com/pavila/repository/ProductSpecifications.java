@@ -0,0 +1,58 @@
+package com.pavila.repository;
+
+import com.pavila.model.dto.ProductFilter;
+import com.pavila.model.entity.Product;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+
+public final class ProductSpecifications {
+
+    private ProductSpecifications() {
+    }
+
+    public static Specification<Product> matching(ProductFilter filter) {
+        Specification<Product> specification = Specification.where(null);
+        if (filter == null) {
+            return specification;
+        }
+        if (filter.getAvailable() != null) {
+            specification = specification.and(hasAvailability(filter.getAvailable()));
+        }
+        if (filter.getMinPrice() != null) {
+            specification = specification.and(priceGreaterThanOrEqualTo(filter.getMinPrice()));
+        }
+        if (filter.getMaxPrice() != null) {
+            specification = specification.and(priceLessThanOrEqualTo(filter.getMaxPrice()));
+        }
+        if (filter.getName() != null && !filter.getName().isBlank()) {
+            specification = specification.and(nameStartsWith(filter.getName().trim()));
+        }
+        return specification;
+    }
+
+    public static Specification<Product> idEquals(Long productId) {
+        return (root, query, builder) -> builder.equal(root.get("id"), productId);
+    }
+
+    public static Specification<Product> idGreaterThan(Long productId) {
+        return (root, query, builder) -> builder.greaterThan(root.get("id"), productId);
+    }
+
+    public static Specification<Product> hasAvailability(boolean available) {
+        return (root, query, builder) -> builder.equal(root.get("available"), available);
+    }
+
+    public static Specification<Product> priceGreaterThanOrEqualTo(BigDecimal price) {
+        return (root, query, builder) -> builder.greaterThanOrEqualTo(root.get("price"), price);
+    }
+
+    public static Specification<Product> priceLessThanOrEqualTo(BigDecimal price) {
+        return (root, query, builder) -> builder.lessThanOrEqualTo(root.get("price"), price);
+    }
+
+    public static Specification<Product> nameStartsWith(String prefix) {
+        String pattern = prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+        return (root, query, builder) -> builder.like(root.get("name"), pattern, '\\');
+    }
+}
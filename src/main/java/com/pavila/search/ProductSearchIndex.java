@@ -0,0 +1,178 @@
+package com.pavila.search;
+
+import com.pavila.event.ProductChangedEvent;
+import com.pavila.model.dto.ProductDTOResponse;
+import com.pavila.model.dto.ProductSearchHitDTOResponse;
+import com.pavila.repository.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProductSearchIndex {
+
+    private static final int GRAM_SIZE = 3;
+    private static final String PADDING = "  ";
+    private static final double MIN_MATCH_RATIO = 0.6;
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final ProductRepository productRepository;
+
+    private final Map<Long, String> names = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        log.info("Building product name search index");
+        long start = System.nanoTime();
+        synchronized (this) {
+            names.clear();
+            postings.clear();
+            try (Stream<ProductDTOResponse> products = productRepository.streamAllProjected()) {
+                products.forEach(product -> add(product.getId(), product.getName()));
+            }
+        }
+        log.info("Indexed {} product names with {} grams in {} ms", names.size(), postings.size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        switch (event.getType()) {
+            case CREATED, UPDATED -> index(event.getProductId(), event.getName());
+            case DELETED -> remove(event.getProductId());
+            default -> {
+            }
+        }
+    }
+
+    public synchronized void index(Long productId, String name) {
+        remove(productId);
+        add(productId, name);
+    }
+
+    public synchronized void remove(Long productId) {
+        String name = names.remove(productId);
+        if (name == null) {
+            return;
+        }
+        for (String gram : indexGrams(name)) {
+            Set<Long> productIds = postings.get(gram);
+            if (productIds != null) {
+                productIds.remove(productId);
+                if (productIds.isEmpty()) {
+                    postings.remove(gram);
+                }
+            }
+        }
+    }
+
+    public int size() {
+        return names.size();
+    }
+
+    public List<ProductSearchHitDTOResponse> search(String query) {
+        String normalizedQuery = normalize(query);
+        Set<String> queryGrams = queryGrams(normalizedQuery);
+        if (queryGrams.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Integer> matches = new HashMap<>();
+        for (String gram : queryGrams) {
+            Set<Long> productIds = postings.get(gram);
+            if (productIds != null) {
+                for (Long productId : productIds) {
+                    matches.merge(productId, 1, Integer::sum);
+                }
+            }
+        }
+
+        int minMatches = (int) Math.ceil(queryGrams.size() * MIN_MATCH_RATIO);
+        List<ProductSearchHitDTOResponse> hits = new ArrayList<>();
+        matches.forEach((productId, matched) -> {
+            String name = names.get(productId);
+            if (matched >= minMatches && name != null) {
+                hits.add(new ProductSearchHitDTOResponse(productId, name,
+                        score(normalize(name), normalizedQuery, matched, queryGrams.size())));
+            }
+        });
+        hits.sort(Comparator.comparingDouble(ProductSearchHitDTOResponse::getScore).reversed()
+                .thenComparingInt(hit -> hit.getName().length())
+                .thenComparing(ProductSearchHitDTOResponse::getId));
+        return hits;
+    }
+
+    private void add(Long productId, String name) {
+        if (name == null) {
+            return;
+        }
+        names.put(productId, name);
+        for (String gram : indexGrams(name)) {
+            postings.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(productId);
+        }
+    }
+
+    private double score(String normalizedName, String normalizedQuery, int matched, int queryGrams) {
+        double score = (double) matched / queryGrams;
+        if (normalizedName.startsWith(normalizedQuery)) {
+            score += 1.0;
+        } else if (normalizedName.contains(" " + normalizedQuery)) {
+            score += 0.5;
+        }
+        return Math.round(score * 1000) / 1000.0;
+    }
+
+    private Set<String> indexGrams(String name) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (String token : tokens(normalize(name))) {
+            addGrams(grams, PADDING + token + " ");
+        }
+        return grams;
+    }
+
+    private Set<String> queryGrams(String normalizedQuery) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (String token : tokens(normalizedQuery)) {
+            addGrams(grams, PADDING + token);
+        }
+        return grams;
+    }
+
+    private void addGrams(Set<String> grams, String paddedToken) {
+        for (int i = 0; i + GRAM_SIZE <= paddedToken.length(); i++) {
+            grams.add(paddedToken.substring(i, i + GRAM_SIZE));
+        }
+    }
+
+    private String[] tokens(String normalized) {
+        return normalized.isEmpty() ? new String[0] : normalized.split(" ");
+    }
+
+    private String normalize(String value) {
+        String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+        String withoutDiacritics = DIACRITICS.matcher(decomposed).replaceAll("");
+        return SEPARATORS.matcher(withoutDiacritics.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+}
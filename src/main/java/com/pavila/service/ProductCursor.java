@@ -0,0 +1,31 @@
+package com.pavila.service;
+
+import com.pavila.exception.InvalidRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+final class ProductCursor {
+
+    private static final String PREFIX = "id:";
+
+    private ProductCursor() {
+    }
+
+    static String encode(Long productId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + productId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Long decode(String cursor) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(PREFIX)) {
+                throw new InvalidRequestException("Invalid cursor " + cursor);
+            }
+            return Long.parseLong(decoded.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidRequestException("Invalid cursor " + cursor);
+        }
+    }
+}
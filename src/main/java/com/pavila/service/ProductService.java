@@ -1,17 +1,36 @@
 package com.pavila.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.pavila.model.dto.BulkOperationDTOResponse;
+import com.pavila.model.dto.CatalogVersion;
+import com.pavila.model.dto.ProductAvailabilityDTORequest;
+import com.pavila.model.dto.ProductBulkDTOResponse;
 import com.pavila.model.dto.ProductDTORequest;
 import com.pavila.model.dto.ProductDTOResponse;
+import com.pavila.model.dto.ProductFilter;
+import com.pavila.model.dto.ProductIdsDTORequest;
+import com.pavila.model.dto.ProductPageDTOResponse;
+import com.pavila.model.dto.ProductSearchDTOResponse;
 
+import java.io.OutputStream;
 import java.util.List;
 
 public interface ProductService {
 
-   List<ProductDTOResponse> findAll();
+   List<ProductDTOResponse> findAll(ProductFilter filter, String fields);
+   CatalogVersion findCatalogVersion();
+   ProductPageDTOResponse findPage(ProductFilter filter, String afterCursor, int limit);
+   long exportAll(OutputStream outputStream);
    ProductDTOResponse findById(Long productId);
+   ProductDTOResponse findById(Long productId, String fields);
+   ProductSearchDTOResponse search(String query, int page, int size);
    ProductDTOResponse save(ProductDTORequest productRequest);
-   void update(ProductDTORequest productDTORequest, Long productId);
+   ProductBulkDTOResponse saveAll(List<ProductDTORequest> productRequests);
+   ProductDTOResponse update(ProductDTORequest productDTORequest, Long productId, Long expectedVersion);
+   ProductDTOResponse patch(Long productId, JsonNode mergePatch, Long expectedVersion);
    void delete(Long productId);
+   BulkOperationDTOResponse deleteAll(ProductIdsDTORequest idsRequest);
    void updateAvailableProduct(Long productId);
+   BulkOperationDTOResponse updateAvailability(ProductAvailabilityDTORequest availabilityRequest);
 
 }
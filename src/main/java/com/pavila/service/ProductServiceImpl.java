@@ -1,124 +1,457 @@
 package com.pavila.service;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.pavila.config.CacheConfig;
+import com.pavila.event.ProductChangedEvent;
+import com.pavila.exception.InvalidRequestException;
 import com.pavila.exception.ObjectNotFoundException;
+import com.pavila.exception.PreconditionFailedException;
+import com.pavila.mapper.ProductMapper;
+import com.pavila.model.dto.BulkOperationDTOResponse;
+import com.pavila.model.dto.CatalogVersion;
+import com.pavila.model.dto.ProductAvailabilityDTORequest;
+import com.pavila.model.dto.ProductBulkDTOResponse;
+import com.pavila.model.dto.ProductBulkItemDTOResponse;
 import com.pavila.model.dto.ProductDTORequest;
 import com.pavila.model.dto.ProductDTOResponse;
+import com.pavila.model.dto.ProductFilter;
+import com.pavila.model.dto.ProductIdsDTORequest;
+import com.pavila.model.dto.ProductPageDTOResponse;
+import com.pavila.model.dto.ProductSearchDTOResponse;
+import com.pavila.model.dto.ProductSearchHitDTOResponse;
 import com.pavila.model.entity.Product;
 import com.pavila.repository.ProductRepository;
+import com.pavila.repository.ProductSpecifications;
+import com.pavila.search.ProductSearchIndex;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
+@Timed(value = "product.service", description = "Time spent in product service methods")
 public class ProductServiceImpl implements ProductService{
 
+    public static final int MAX_PAGE_SIZE = 100;
+    public static final int MAX_BULK_SIZE = 1000;
+    private static final int EXPORT_FLUSH_SIZE = 500;
+    private static final int DELETE_CHUNK_SIZE = 500;
+    private static final Map<String, String> SORTABLE_FIELDS = Map.of(
+            "price", "price",
+            "name", "name",
+            "created_date", "createdDate");
+    private static final Map<String, String> SELECTABLE_FIELDS = Map.of(
+            "id", "id",
+            "name", "name",
+            "price", "price",
+            "available", "available",
+            "created_date", "createdDate",
+            "last_modified_date", "lastModifiedDate",
+            "version", "version");
+
     private final ProductRepository productRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductSearchIndex productSearchIndex;
+
+    @Value("${product.bulk.chunk-size:50}")
+    private int bulkChunkSize;
+
+    @Override
+    @Transactional(readOnly = true)
+    public  List<ProductDTOResponse> findAll(ProductFilter filter, String fields) {
+        validateFilter(filter);
+        Sort sort = toSort(filter.getSort());
+        List<ProductDTOResponse> products = fields == null
+                ? productRepository.findAllProjected(ProductSpecifications.matching(filter), sort, Limit.unlimited())
+                : productRepository.findAllProjected(ProductSpecifications.matching(filter), sort, Limit.unlimited(), toAttributes(fields));
+        log.debug("Found {} products with filter: {}", products.size(), filter);
+        return products;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public CatalogVersion findCatalogVersion() {
+        return productRepository.findCatalogVersion();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ProductPageDTOResponse findPage(ProductFilter filter, String afterCursor, int limit) {
+        if (limit < 1) {
+            throw new InvalidRequestException("The limit must be greater than 0");
+        }
+        if (filter.getSort() != null && !filter.getSort().isBlank()) {
+            throw new InvalidRequestException("Sorting is not supported with cursor pagination, pages are ordered by id");
+        }
+        validateFilter(filter);
+        int pageSize = Math.min(limit, MAX_PAGE_SIZE);
+        Long afterId = afterCursor == null || afterCursor.isBlank() ? 0L : ProductCursor.decode(afterCursor);
+
+        List<ProductDTOResponse> products = productRepository.findAllProjected(
+                ProductSpecifications.matching(filter).and(ProductSpecifications.idGreaterThan(afterId)),
+                Sort.by("id"), Limit.of(pageSize + 1));
+        boolean hasMore = products.size() > pageSize;
+        List<ProductDTOResponse> page = hasMore ? products.subList(0, pageSize) : products;
+
+        log.debug("Found {} products after ID: {}, more available: {}", page.size(), afterId, hasMore);
+        return ProductPageDTOResponse.builder()
+                .items(page)
+                .limit(pageSize)
+                .hasMore(hasMore)
+                .nextCursor(hasMore ? ProductCursor.encode(page.get(page.size() - 1).getId()) : null)
+                .build();
+    }
 
     @Override
     @Transactional(readOnly = true)
-    public  List<ProductDTOResponse> findAll() {
-        log.info("Initiating find all products operation");
-        List<Product> products = productRepository.findAll();
-        if(products.isEmpty()){
-            log.warn("No products found in the repository");
-            throw new ObjectNotFoundException("The product list is empty");
-        }
-        log.info("Found {} products", products.size());
-        return products.stream()
-                .map(product -> ProductDTOResponse.builder()
-                        .id(product.getId())
-                        .name(product.getName())
-                        .price(product.getPrice())
-                        .available(product.isAvailable())
-                        .createdDate(product.getCreatedDate())
-                        .lastModifiedDate(product.getLastModifiedDate())
-                        .build()).toList();
+    public long exportAll(OutputStream outputStream) {
+        // Without FLUSH_AFTER_WRITE_VALUE every row would be flushed, and gzipped, on its own
+        ObjectWriter writer = objectMapper.writerFor(ProductDTOResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        long exported = 0;
+        try (Stream<ProductDTOResponse> products = productRepository.streamAllProjected();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            Iterator<ProductDTOResponse> iterator = products.iterator();
+            while (iterator.hasNext()) {
+                writer.writeValue(generator, iterator.next());
+                generator.writeRaw('\n');
+                exported++;
+                if (exported == 1 || exported % EXPORT_FLUSH_SIZE == 0) {
+                    generator.flush();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error writing the product export", e);
+        }
+        log.info("Exported {} products", exported);
+        return exported;
     }
 
     @Override
     @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "#productId")
     public ProductDTOResponse findById(Long productId) {
-        log.info("Attempting to find product with ID: {}", productId);
-        Product product = productRepository.findById(productId)
+        ProductDTOResponse product = productRepository.findProjectedById(productId)
                 .orElseThrow( () -> new ObjectNotFoundException("Product not found by id " + productId));
-        log.info("Product found: ID = {}, Name = {}", product.getId(), product.getName());
-        log.info("Returning product response for ID: {}", productId);
-        return ProductDTOResponse.builder()
-                .id(product.getId())
-                .name(product.getName())
-                .price(product.getPrice())
-                .available(product.isAvailable())
-                .createdDate(product.getCreatedDate())
-                .lastModifiedDate(product.getLastModifiedDate())
+        log.debug("Product found with ID: {}", productId);
+        return product;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ProductDTOResponse findById(Long productId, String fields) {
+        ProductDTOResponse product = productRepository.findAllProjected(
+                        ProductSpecifications.idEquals(productId), Sort.unsorted(), Limit.of(1), toAttributes(fields))
+                .stream()
+                .findFirst()
+                .orElseThrow( () -> new ObjectNotFoundException("Product not found by id " + productId));
+        log.debug("Product found with ID: {} and fields: {}", productId, fields);
+        return product;
+    }
+
+    @Override
+    public ProductSearchDTOResponse search(String query, int page, int size) {
+        if (query == null || query.isBlank()) {
+            throw new InvalidRequestException("The search query cannot be blank");
+        }
+        if (page < 0 || size < 1) {
+            throw new InvalidRequestException("The page must be 0 or greater and the size greater than 0");
+        }
+        int pageSize = Math.min(size, MAX_PAGE_SIZE);
+        List<ProductSearchHitDTOResponse> hits = productSearchIndex.search(query);
+        int from = (int) Math.min((long) page * pageSize, hits.size());
+        log.debug("Search for '{}' matched {} products", query, hits.size());
+        return ProductSearchDTOResponse.builder()
+                .query(query)
+                .total(hits.size())
+                .page(page)
+                .size(pageSize)
+                .items(hits.subList(from, Math.min(from + pageSize, hits.size())))
                 .build();
     }
 
     @Override
     @Transactional
     public ProductDTOResponse save(ProductDTORequest productRequest) {
-        log.info("Starting save operation for product with name: {}", productRequest.getName());
-        Product product = productRepository.save(Product.builder()
-                        .name(productRequest.getName())
-                        .price(productRequest.getPrice())
-                .build());
-        log.info("Saving product to the repository");
-
-        log.info("Product saved with ID: {}", product.getId());
-        return ProductDTOResponse.builder()
-                .id(product.getId())
+        Product product = productRepository.save(ProductMapper.toEntity(productRequest));
+        log.debug("Product saved with ID: {}", product.getId());
+        eventPublisher.publishEvent(ProductChangedEvent.created(product.getId(), product.getName()));
+        return ProductMapper.toResponse(product);
+    }
+
+    @Override
+    public ProductBulkDTOResponse saveAll(List<ProductDTORequest> productRequests) {
+        if (productRequests == null || productRequests.isEmpty()) {
+            throw new InvalidRequestException("The product list cannot be empty");
+        }
+        if (productRequests.size() > MAX_BULK_SIZE) {
+            throw new InvalidRequestException("A maximum of " + MAX_BULK_SIZE + " products can be saved per request");
+        }
+        long start = System.nanoTime();
+
+        ProductBulkItemDTOResponse[] items = new ProductBulkItemDTOResponse[productRequests.size()];
+        List<Integer> validIndexes = new ArrayList<>(productRequests.size());
+        for (int index = 0; index < productRequests.size(); index++) {
+            List<String> errors = validate(productRequests.get(index));
+            if (errors.isEmpty()) {
+                validIndexes.add(index);
+            } else {
+                items[index] = bulkItem(index, ProductBulkItemDTOResponse.Status.INVALID, null, errors);
+            }
+        }
+
+        int created = 0;
+        for (int from = 0; from < validIndexes.size(); from += bulkChunkSize) {
+            List<Integer> chunk = validIndexes.subList(from, Math.min(from + bulkChunkSize, validIndexes.size()));
+            try {
+                List<Product> products = transactionTemplate.execute(status -> saveChunk(productRequests, chunk));
+                for (int i = 0; i < chunk.size(); i++) {
+                    items[chunk.get(i)] = bulkItem(chunk.get(i), ProductBulkItemDTOResponse.Status.CREATED,
+                            ProductMapper.toResponse(products.get(i)), null);
+                }
+                created += chunk.size();
+            } catch (RuntimeException e) {
+                log.warn("Bulk save of {} products failed: {}", chunk.size(), e.getMessage());
+                for (Integer index : chunk) {
+                    items[index] = bulkItem(index, ProductBulkItemDTOResponse.Status.FAILED, null, List.of(errorMessage(e)));
+                }
+            }
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        log.info("Bulk saved {} of {} products in {} ms ({} rows/s)", created, productRequests.size(), elapsedMillis,
+                elapsedMillis == 0 ? created : created * 1000L / elapsedMillis);
+        return ProductBulkDTOResponse.builder()
+                .requested(productRequests.size())
+                .created(created)
+                .failed(productRequests.size() - created)
+                .elapsedMillis(elapsedMillis)
+                .items(Arrays.asList(items))
+                .build();
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "#productId")
+    public ProductDTOResponse update(ProductDTORequest productDTORequest, Long productId, Long expectedVersion) {
+        Product product = findForUpdate(productId, expectedVersion);
+        return applyUpdate(product, productDTORequest);
+    }
+
+    @Override
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "#productId")
+    public ProductDTOResponse patch(Long productId, JsonNode mergePatch, Long expectedVersion) {
+        if (mergePatch == null || !mergePatch.isObject()) {
+            throw new InvalidRequestException("The merge patch must be a JSON object");
+        }
+        Product product = findForUpdate(productId, expectedVersion);
+        ProductDTORequest patchedRequest = ProductDTORequest.builder()
                 .name(product.getName())
                 .price(product.getPrice())
                 .available(product.isAvailable())
-                .createdDate(product.getCreatedDate())
-                .lastModifiedDate(product.getLastModifiedDate())
                 .build();
+        try {
+            objectMapper.readerForUpdating(patchedRequest)
+                    .with(DeserializationFeature.FAIL_ON_NULL_FOR_PRIMITIVES)
+                    .readValue(mergePatch);
+        } catch (JsonProcessingException e) {
+            throw new InvalidRequestException("The merge patch cannot be applied: " + e.getOriginalMessage());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Error applying the merge patch", e);
+        }
+        List<String> errors = validate(patchedRequest);
+        if (!errors.isEmpty()) {
+            throw new InvalidRequestException(String.join(", ", errors));
+        }
+        return applyUpdate(product, patchedRequest);
     }
 
     @Override
     @Transactional
-    public void update(ProductDTORequest productDTORequest, Long productId) {
-        log.info("Starting update operation for product with ID: {}", productId);
-        Product product = productRepository.findById(productId)
-                .orElseThrow( () -> new ObjectNotFoundException("Product not found by id " + productId));
-        log.info("Product found: {}", product);
-        BeanUtils.copyProperties(productDTORequest, product);
-        log.info("Saving updated product to the repository");
-        Product updatedProduct = productRepository.save(product);
-        log.info("Product updated successfully with ID: {}", updatedProduct.getId());
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "#productId")
+    public void delete(Long productId) {
+        int deleted = productRepository.deleteProductById(productId);
+        if (deleted == 0) {
+            throw new ObjectNotFoundException("Product not found by id " + productId);
+        }
+        eventPublisher.publishEvent(ProductChangedEvent.deleted(productId));
+        log.debug("Product deleted with ID: {}", productId);
+    }
 
+    @Override
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS_CACHE, allEntries = true)
+    public BulkOperationDTOResponse deleteAll(ProductIdsDTORequest idsRequest) {
+        List<Long> productIds = idsRequest.getIds().stream().distinct().toList();
+        int deleted = 0;
+        for (int from = 0; from < productIds.size(); from += DELETE_CHUNK_SIZE) {
+            List<Long> chunk = productIds.subList(from, Math.min(from + DELETE_CHUNK_SIZE, productIds.size()));
+            Integer chunkDeleted = transactionTemplate.execute(status -> {
+                List<Long> existingIds = productRepository.lockExistingIds(chunk);
+                if (existingIds.isEmpty()) {
+                    return 0;
+                }
+                int chunkDeletedCount = productRepository.deleteProductsByIds(existingIds);
+                existingIds.forEach(productId -> eventPublisher.publishEvent(ProductChangedEvent.deleted(productId)));
+                return chunkDeletedCount;
+            });
+            deleted += chunkDeleted == null ? 0 : chunkDeleted;
+        }
+        log.info("Deleted {} of {} products", deleted, productIds.size());
+        return BulkOperationDTOResponse.builder()
+                .requested(productIds.size())
+                .affected(deleted)
+                .build();
     }
 
     @Override
     @Transactional
-    public void delete(Long productId) {
-        log.info("Starting delete operation for product with ID: {}", productId);
-        Product product = productRepository.findById(productId)
-                .orElseThrow( () -> new ObjectNotFoundException("Product not found by id " + productId));
-        log.info("Deleting product with ID: {}", productId);
-        productRepository.delete(product);
-        log.info("Product with ID: {} has been successfully deleted", productId);
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS_CACHE, key = "#productId")
+    public void updateAvailableProduct(Long productId) {
+        int updated = productRepository.toggleAvailability(productId, LocalDateTime.now());
+        if (updated == 0) {
+            throw new ObjectNotFoundException("Product not found by id " + productId);
+        }
+        eventPublisher.publishEvent(ProductChangedEvent.availabilityChanged(productId));
+        log.debug("Product availability toggled for ID: {}", productId);
     }
 
     @Override
     @Transactional
-    public void updateAvailableProduct(Long productId) {
-        log.info("Starting update of product availability for product with ID: {}", productId);
+    @CacheEvict(cacheNames = CacheConfig.PRODUCTS_CACHE, allEntries = true)
+    public BulkOperationDTOResponse updateAvailability(ProductAvailabilityDTORequest availabilityRequest) {
+        List<Long> productIds = availabilityRequest.getIds().stream().distinct().toList();
+        List<Long> existingIds = productRepository.lockExistingIds(productIds);
+        int updated = existingIds.isEmpty() ? 0
+                : productRepository.updateAvailability(existingIds, availabilityRequest.getAvailable(), LocalDateTime.now());
+        existingIds.forEach(productId -> eventPublisher.publishEvent(ProductChangedEvent.availabilityChanged(productId)));
+        log.info("Availability set to {} for {} of {} products", availabilityRequest.getAvailable(), updated, productIds.size());
+        return BulkOperationDTOResponse.builder()
+                .requested(productIds.size())
+                .affected(updated)
+                .build();
+    }
 
+    private Product findForUpdate(Long productId, Long expectedVersion) {
         Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ObjectNotFoundException("Product not found by id " + productId));
+                .orElseThrow( () -> new ObjectNotFoundException("Product not found by id " + productId));
+        if (expectedVersion != null && product.getVersion() != expectedVersion) {
+            throw new PreconditionFailedException("Product " + productId + " is at version " + product.getVersion()
+                    + " but version " + expectedVersion + " was expected");
+        }
+        return product;
+    }
+
+    private ProductDTOResponse applyUpdate(Product product, ProductDTORequest productRequest) {
+        product.setName(productRequest.getName());
+        product.setPrice(productRequest.getPrice());
+        product.setAvailable(productRequest.isAvailable());
+        productRepository.flush();
+        eventPublisher.publishEvent(ProductChangedEvent.updated(product.getId(), product.getName()));
+        log.debug("Product updated with ID: {} to version: {}", product.getId(), product.getVersion());
+        return ProductMapper.toResponse(product);
+    }
 
-        boolean newAvailability = !product.isAvailable();
-        log.info("Updating product availability to: {}", newAvailability);
-        product.setAvailable(newAvailability);
+    private void validateFilter(ProductFilter filter) {
+        if (filter.getMinPrice() != null && filter.getMaxPrice() != null
+                && filter.getMinPrice().compareTo(filter.getMaxPrice()) > 0) {
+            throw new InvalidRequestException("The minPrice cannot be greater than the maxPrice");
+        }
+    }
+
+    private Set<String> toAttributes(String fields) {
+        Set<String> attributes = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String attribute = SELECTABLE_FIELDS.get(field.trim());
+            if (attribute == null) {
+                throw new InvalidRequestException("Invalid field " + field.trim() + ", allowed values are " + SELECTABLE_FIELDS.keySet());
+            }
+            attributes.add(attribute);
+        }
+        return attributes;
+    }
 
-        log.info("Saving updated product with ID: {}", productId);
-        productRepository.save(product);
-        log.info("Product availability updated successfully for ID: {}", productId);
+    private Sort toSort(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return Sort.by("id");
+        }
+        boolean descending = sort.startsWith("-");
+        String field = SORTABLE_FIELDS.get(descending ? sort.substring(1) : sort);
+        if (field == null) {
+            throw new InvalidRequestException("Invalid sort " + sort + ", allowed values are " + SORTABLE_FIELDS.keySet());
+        }
+        return Sort.by(descending ? Sort.Direction.DESC : Sort.Direction.ASC, field).and(Sort.by("id"));
+    }
+
+    private List<Product> saveChunk(List<ProductDTORequest> productRequests, List<Integer> chunk) {
+        List<Product> products = chunk.stream()
+                .map(index -> ProductMapper.toEntity(productRequests.get(index)))
+                .toList();
+        productRepository.saveAll(products);
+        entityManager.flush();
+        products.forEach(product -> eventPublisher.publishEvent(ProductChangedEvent.created(product.getId(), product.getName())));
+        entityManager.clear();
+        return products;
+    }
+
+    private List<String> validate(ProductDTORequest productRequest) {
+        if (productRequest == null) {
+            return List.of("The product cannot be null");
+        }
+        return validator.validate(productRequest).stream()
+                .map(violation -> String.format("%s: %s", violation.getPropertyPath(), violation.getMessage()))
+                .toList();
+    }
+
+    private static String errorMessage(RuntimeException e) {
+        return e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage();
+    }
+
+    private ProductBulkItemDTOResponse bulkItem(int index, ProductBulkItemDTOResponse.Status status,
+                                                ProductDTOResponse product, List<String> errors) {
+        return ProductBulkItemDTOResponse.builder()
+                .index(index)
+                .status(status)
+                .product(product)
+                .errors(errors)
+                .build();
     }
 }
@@ -0,0 +1,3 @@
+-- Run once on databases created before products gained the optimistic locking version column,
+-- so existing rows start at version 0 instead of NULL.
+ALTER TABLE products ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
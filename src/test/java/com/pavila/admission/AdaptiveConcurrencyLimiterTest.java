@@ -0,0 +1,88 @@
+package com.pavila.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(600);
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+
+    private AdaptiveConcurrencyLimiter limiter(int initialLimit) {
+        return new AdaptiveConcurrencyLimiter(initialLimit, 4, 200, 500, 0.9, clock::get);
+    }
+
+    @Test
+    void rejectsOnceTheLimitIsInFlight() {
+        AdaptiveConcurrencyLimiter limiter = limiter(4);
+        for (int i = 0; i < 4; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+        }
+
+        assertThat(limiter.tryAcquire()).isFalse();
+        assertThat(limiter.getInFlight()).isEqualTo(4);
+    }
+
+    @Test
+    void aWaveOfSlowRequestsDecreasesTheLimitOnce() {
+        AdaptiveConcurrencyLimiter limiter = limiter(20);
+        for (int i = 0; i < 20; i++) {
+            limiter.tryAcquire();
+        }
+
+        clock.addAndGet(SLOW);
+        for (int i = 0; i < 20; i++) {
+            limiter.release(SLOW, false);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(18);
+        assertThat(limiter.getInFlight()).isZero();
+    }
+
+    @Test
+    void slowRequestsStartedAfterTheDecreaseDecreaseItAgain() {
+        AdaptiveConcurrencyLimiter limiter = limiter(20);
+        limiter.tryAcquire();
+        clock.addAndGet(SLOW);
+        limiter.release(SLOW, false);
+
+        clock.addAndGet(FAST);
+        limiter.tryAcquire();
+        clock.addAndGet(SLOW);
+        limiter.release(SLOW, false);
+
+        assertThat(limiter.getLimit()).isEqualTo(16);
+    }
+
+    @Test
+    void overloadedResponsesDecreaseTheLimitDownToTheMinimum() {
+        AdaptiveConcurrencyLimiter limiter = limiter(5);
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire();
+            clock.addAndGet(FAST);
+            limiter.release(FAST, true);
+        }
+
+        assertThat(limiter.getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    void fastRequestsGrowTheLimitOnlyWhileHalfOfItIsInUse() {
+        AdaptiveConcurrencyLimiter limiter = limiter(10);
+        limiter.tryAcquire();
+        limiter.release(FAST, false);
+        assertThat(limiter.getLimit()).isEqualTo(10);
+
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire();
+        }
+        limiter.release(FAST, false);
+        assertThat(limiter.getLimit()).isEqualTo(11);
+    }
+}
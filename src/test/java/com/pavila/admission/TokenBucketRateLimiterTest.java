@@ -0,0 +1,80 @@
+package com.pavila.admission;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TokenBucketRateLimiterTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong(42 * SECOND);
+
+    @Test
+    void allowsAFullBurstBackToBack() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(10, 5, 100, clock::get);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(limiter.tryAcquire("client")).as("request %d", i + 1).isZero();
+        }
+        assertThat(limiter.tryAcquire("client")).isEqualTo(SECOND / 10);
+    }
+
+    @Test
+    void burstOfOneAllowsOneRequestPerInterval() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(2, 1, 100, clock::get);
+
+        assertThat(limiter.tryAcquire("client")).isZero();
+        assertThat(limiter.tryAcquire("client")).isEqualTo(SECOND / 2);
+
+        clock.addAndGet(SECOND / 4);
+        assertThat(limiter.tryAcquire("client")).isEqualTo(SECOND / 4);
+
+        clock.addAndGet(SECOND / 4);
+        assertThat(limiter.tryAcquire("client")).isZero();
+        assertThat(limiter.tryAcquire("client")).isEqualTo(SECOND / 2);
+    }
+
+    @Test
+    void refillsOneTokenPerInterval() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(10, 3, 100, clock::get);
+        for (int i = 0; i < 3; i++) {
+            limiter.tryAcquire("client");
+        }
+
+        clock.addAndGet(SECOND / 10);
+        assertThat(limiter.tryAcquire("client")).isZero();
+        assertThat(limiter.tryAcquire("client")).isPositive();
+
+        clock.addAndGet(SECOND);
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("client")).isZero();
+        }
+        assertThat(limiter.tryAcquire("client")).isPositive();
+    }
+
+    @Test
+    void rejectedRequestsDoNotTakeTokens() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(10, 1, 100, clock::get);
+        limiter.tryAcquire("client");
+        for (int i = 0; i < 10; i++) {
+            limiter.tryAcquire("client");
+        }
+
+        clock.addAndGet(SECOND / 10);
+        assertThat(limiter.tryAcquire("client")).isZero();
+    }
+
+    @Test
+    void clientsHaveSeparateBuckets() {
+        TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1, 1, 100, clock::get);
+
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isPositive();
+        assertThat(limiter.tryAcquire("b")).isZero();
+        assertThat(limiter.getClientCount()).isEqualTo(2);
+    }
+}
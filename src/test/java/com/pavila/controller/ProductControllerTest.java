@@ -0,0 +1,238 @@
+package com.pavila.controller;
+
+import com.pavila.model.dto.ProductDTORequest;
+import com.pavila.model.dto.ProductDTOResponse;
+import com.pavila.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@ActiveProfiles("embedded")
+@AutoConfigureMockMvc
+class ProductControllerTest {
+
+    private static final MediaType MERGE_PATCH_JSON = MediaType.parseMediaType("application/merge-patch+json");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ProductService productService;
+
+    @Test
+    void malformedCursorReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/products").param("limit", "2").param("after", "zzz"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.backend_message").value("Invalid cursor zzz"));
+    }
+
+    @Test
+    void pageOfAnEmptyRangeHasNoNextCursor() throws Exception {
+        mockMvc.perform(get("/api/v1/products").param("limit", "2").param("after", "aWQ6OTk5OTk5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items").isEmpty())
+                .andExpect(jsonPath("$.has_more").value(false));
+    }
+
+    @Test
+    void productNotModifiedSinceItsETagReturnsNotModified() throws Exception {
+        ProductDTOResponse product = save("ETag product");
+        String eTag = mockMvc.perform(get("/api/v1/products/{id}", product.getId()))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + product.getVersion() + "\""))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        mockMvc.perform(get("/api/v1/products/{id}", product.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void productChangedSinceItsETagReturnsTheNewVersion() throws Exception {
+        ProductDTOResponse product = save("ETag changed");
+        String eTag = mockMvc.perform(get("/api/v1/products/{id}", product.getId()))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        productService.updateAvailableProduct(product.getId());
+
+        mockMvc.perform(get("/api/v1/products/{id}", product.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + (product.getVersion() + 1) + "\""))
+                .andExpect(jsonPath("$.available").value(!product.getAvailable()));
+    }
+
+    @Test
+    void catalogNotModifiedSinceItsETagReturnsNotModified() throws Exception {
+        save("Catalog unchanged");
+        String eTag = catalogETag();
+        assertThat(eTag).startsWith("W/\"catalog-");
+
+        mockMvc.perform(get("/api/v1/products").header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void catalogETagChangesAfterAWrite() throws Exception {
+        ProductDTOResponse product = save("Catalog changed");
+        String created = catalogETag();
+
+        Thread.sleep(5);
+        productService.updateAvailableProduct(product.getId());
+        String updated = catalogETag();
+
+        save("Catalog grown");
+        String grown = catalogETag();
+
+        assertThat(List.of(created, updated, grown)).doesNotHaveDuplicates();
+        mockMvc.perform(get("/api/v1/products").header(HttpHeaders.IF_NONE_MATCH, created))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, grown));
+    }
+
+    @Test
+    void putWithMatchingIfMatchUpdatesAndReturnsTheNewETag() throws Exception {
+        ProductDTOResponse product = save("If-Match current");
+
+        mockMvc.perform(put("/api/v1/products/{id}", product.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"" + product.getVersion() + "\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"If-Match updated\", \"price\": 12.5, \"available\": true}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + (product.getVersion() + 1) + "\""))
+                .andExpect(jsonPath("$.name").value("If-Match updated"));
+    }
+
+    @Test
+    void putWithStaleIfMatchReturnsPreconditionFailed() throws Exception {
+        ProductDTOResponse product = save("If-Match stale");
+        productService.updateAvailableProduct(product.getId());
+
+        mockMvc.perform(put("/api/v1/products/{id}", product.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"" + product.getVersion() + "\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"If-Match lost update\", \"price\": 12.5, \"available\": true}"))
+                .andExpect(status().isPreconditionFailed());
+
+        assertThat(productService.findById(product.getId()).getName()).isEqualTo("If-Match stale");
+    }
+
+    @Test
+    void nonNumericIfMatchReturnsPreconditionFailed() throws Exception {
+        ProductDTOResponse product = save("If-Match invalid");
+
+        mockMvc.perform(patch("/api/v1/products/{id}", product.getId())
+                        .header(HttpHeaders.IF_MATCH, "\"abc\"")
+                        .contentType(MERGE_PATCH_JSON)
+                        .content("{\"price\": 3}"))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.backend_message").value("If-Match \"abc\" does not match the current ETag of the product"));
+    }
+
+    @Test
+    void mergePatchChangesOnlyThePresentMembers() throws Exception {
+        ProductDTOResponse product = save("Merge patch");
+
+        mockMvc.perform(patch("/api/v1/products/{id}", product.getId())
+                        .header(HttpHeaders.IF_MATCH, "*")
+                        .contentType(MERGE_PATCH_JSON)
+                        .content("{\"price\": 3.5}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Merge patch"))
+                .andExpect(jsonPath("$.price").value(3.5))
+                .andExpect(jsonPath("$.available").value(product.getAvailable()));
+    }
+
+    @Test
+    void mergePatchWithNullMembersIsRejected() throws Exception {
+        ProductDTOResponse product = save("Merge patch null");
+
+        mockMvc.perform(patch("/api/v1/products/{id}", product.getId())
+                        .contentType(MERGE_PATCH_JSON)
+                        .content("{\"name\": null}"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(patch("/api/v1/products/{id}", product.getId())
+                        .contentType(MERGE_PATCH_JSON)
+                        .content("{\"available\": null}"))
+                .andExpect(status().isBadRequest());
+
+        ProductDTOResponse stored = productService.findById(product.getId());
+        assertThat(stored.getName()).isEqualTo("Merge patch null");
+        assertThat(stored.getVersion()).isEqualTo(product.getVersion());
+    }
+
+    @Test
+    void sparseFieldsReturnOnlyTheSelectedMembers() throws Exception {
+        ProductDTOResponse product = save("Sparse product");
+
+        mockMvc.perform(get("/api/v1/products/{id}", product.getId()).param("fields", "id,name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(product.getId()))
+                .andExpect(jsonPath("$.name").value("Sparse product"))
+                .andExpect(jsonPath("$.price").doesNotExist())
+                .andExpect(jsonPath("$.available").doesNotExist())
+                .andExpect(jsonPath("$.version").doesNotExist());
+    }
+
+    @Test
+    void unknownSparseFieldIsRejected() throws Exception {
+        mockMvc.perform(get("/api/v1/products").param("fields", "id,stock"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.backend_message").value(startsWith("Invalid field stock, allowed values are ")));
+        mockMvc.perform(get("/api/v1/products/{id}", save("Unknown field").getId()).param("fields", "stock"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void sparseProductWithoutVersionHasNoETag() throws Exception {
+        ProductDTOResponse product = save("Sparse without version");
+
+        mockMvc.perform(get("/api/v1/products/{id}", product.getId()).param("fields", "id,name"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.ETAG));
+        mockMvc.perform(get("/api/v1/products/{id}", product.getId()).param("fields", "id,name")
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"" + product.getVersion() + "\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Sparse without version"));
+    }
+
+    @Test
+    void sparseProductWithVersionHasAnETag() throws Exception {
+        ProductDTOResponse product = save("Sparse with version");
+
+        mockMvc.perform(get("/api/v1/products/{id}", product.getId()).param("fields", "id,version"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"" + product.getVersion() + "\""));
+    }
+
+    private String catalogETag() throws Exception {
+        return mockMvc.perform(get("/api/v1/products"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    private ProductDTOResponse save(String name) {
+        return productService.save(ProductDTORequest.builder()
+                .name(name)
+                .price(BigDecimal.TEN)
+                .build());
+    }
+}
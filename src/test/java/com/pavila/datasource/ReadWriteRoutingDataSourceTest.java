@@ -0,0 +1,90 @@
+package com.pavila.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "product.idempotency.persistence.enabled=true")
+@ActiveProfiles({ "embedded", "replicas" })
+@AutoConfigureMockMvc
+class ReadWriteRoutingDataSourceTest {
+
+    private static final long REPLICA_PRODUCT_ID = 1_000_000L;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private HikariDataSource primaryDataSource;
+
+    @Autowired
+    private ReadWriteRoutingDataSource routingDataSource;
+
+    @Value("${product.datasource.replicas.urls}")
+    private String replicaUrl;
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void setUp() {
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(new DriverManagerDataSource(replicaUrl, "sa", ""));
+        replica.update("delete from products");
+        replica.update("insert into products (id, name, price, available, version, created_date) " +
+                "values (?, 'Replica only', 1, true, 0, current_timestamp)", REPLICA_PRODUCT_ID);
+    }
+
+    @Test
+    void readsGoToTheReplicaAndWritesToThePrimary() throws Exception {
+        mockMvc.perform(post("/api/v1/products").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"name\": \"Primary only\", \"price\": 10}"))
+                .andExpect(status().isCreated());
+
+        mockMvc.perform(get("/api/v1/products").param("name", "Primary"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isEmpty());
+        mockMvc.perform(get("/api/v1/products").param("name", "Replica"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", contains((int) REPLICA_PRODUCT_ID)));
+
+        assertThat(primary.queryForList("select name from products where name = 'Primary only'", String.class)).hasSize(1);
+        assertThat(replica.queryForList("select name from products where name = 'Primary only'", String.class)).isEmpty();
+        assertThat(routingDataSource.getReplicaCount()).isEqualTo(1);
+    }
+
+    @Test
+    void writeAfterAReadInTheSameRequestGoesToThePrimary() throws Exception {
+        // The stored key is looked up in a transaction of its own before the product is inserted
+        mockMvc.perform(post("/api/v1/products").contentType(MediaType.APPLICATION_JSON)
+                        .header("Idempotency-Key", "routing-test")
+                        .content("{\"name\": \"Idempotent primary\", \"price\": 10}"))
+                .andExpect(status().isCreated());
+
+        List<String> primaryKeys = primary.queryForList(
+                "select idempotency_key from idempotency_keys where idempotency_key = 'routing-test'", String.class);
+        assertThat(primaryKeys).containsExactly("routing-test");
+        assertThat(primary.queryForList("select name from products where name = 'Idempotent primary'", String.class)).hasSize(1);
+        assertThat(replica.queryForList("select name from products where name = 'Idempotent primary'", String.class)).isEmpty();
+    }
+}
@@ -0,0 +1,144 @@
+package com.pavila.event;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+class ProductChangeFeedTest {
+
+    private static final Pattern EVENT_ID = Pattern.compile("^id:(\\d+)-(\\d+)$", Pattern.MULTILINE);
+
+    private ProductChangeFeed feed;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        // A buffer of 4 so a handful of events is enough to wrap the ring
+        feed = new ProductChangeFeed(4, 60_000, 3_000, new SimpleMeterRegistry());
+        mockMvc = MockMvcBuilders.standaloneSetup(new ChangesController(feed)).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        feed.close();
+    }
+
+    @Test
+    void liveSubscriberReceivesEveryChangeInOrder() throws Exception {
+        MockHttpServletResponse live = subscribe(null);
+
+        publish(3);
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> sequences(live).size() == 3);
+        assertThat(sequences(live)).containsExactly(1L, 2L, 3L);
+        assertThat(live.getContentAsString()).contains("event:updated").doesNotContain("event:reset");
+    }
+
+    @Test
+    void resumeFromLastEventIdReplaysTheWrappedRing() throws Exception {
+        String epoch = epoch();
+        publish(5);
+
+        // Sequences 5 and 6 overwrote the slots of 1 and 2, the client only missed 3 to 6
+        MockHttpServletResponse resumed = subscribe(epoch + "-2");
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> sequences(resumed).size() == 4);
+        assertThat(sequences(resumed)).containsExactly(3L, 4L, 5L, 6L);
+        assertThat(resumed.getContentAsString()).doesNotContain("event:reset");
+    }
+
+    @Test
+    void resumeFromTheHeadSendsNothingUntilTheNextChange() throws Exception {
+        String epoch = epoch();
+
+        MockHttpServletResponse resumed = subscribe(epoch + "-1");
+        publish(1);
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> sequences(resumed).size() == 1);
+        assertThat(sequences(resumed)).containsExactly(2L);
+    }
+
+    @Test
+    void resumeFromAnIdNoLongerBufferedSendsReset() throws Exception {
+        String epoch = epoch();
+        publish(5);
+
+        MockHttpServletResponse resumed = subscribe(epoch + "-1");
+
+        assertThat(resumed.getContentAsString())
+                .contains("id:" + epoch + "-6\nevent:reset\n")
+                .contains("\"type\":\"reset\"")
+                .contains("\"sequence\":6");
+
+        publish(1);
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> sequences(resumed).size() == 2);
+        assertThat(sequences(resumed)).containsExactly(6L, 7L);
+    }
+
+    @Test
+    void eventIdFromAnotherInstanceSendsReset() throws Exception {
+        publish(2);
+
+        MockHttpServletResponse resumed = subscribe("1-1");
+
+        assertThat(resumed.getContentAsString()).contains("event:reset").contains("\"sequence\":2");
+    }
+
+    // Learns the epoch of the feed from the id of the first change a live subscriber receives
+    private String epoch() throws Exception {
+        MockHttpServletResponse live = subscribe(null);
+        publish(1);
+        await().atMost(Duration.ofSeconds(5)).until(() -> EVENT_ID.matcher(live.getContentAsString()).find());
+        Matcher matcher = EVENT_ID.matcher(live.getContentAsString());
+        assertThat(matcher.find()).isTrue();
+        return matcher.group(1);
+    }
+
+    private MockHttpServletResponse subscribe(String lastEventId) throws Exception {
+        var request = get(ProductChangeFeed.PATH).accept(MediaType.TEXT_EVENT_STREAM);
+        if (lastEventId != null) {
+            request.header("Last-Event-ID", lastEventId);
+        }
+        return mockMvc.perform(request).andReturn().getResponse();
+    }
+
+    private void publish(int count) {
+        for (int i = 0; i < count; i++) {
+            feed.onProductChanged(ProductChangedEvent.updated((long) i + 1, "Product " + i));
+        }
+    }
+
+    private static List<Long> sequences(MockHttpServletResponse response) throws Exception {
+        return EVENT_ID.matcher(response.getContentAsString()).results()
+                .map(result -> Long.parseLong(result.group(2)))
+                .toList();
+    }
+
+    @RestController
+    record ChangesController(ProductChangeFeed feed) {
+
+        @GetMapping(value = ProductChangeFeed.PATH, produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+        public SseEmitter streamChanges(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+            return feed.subscribe(lastEventId);
+        }
+    }
+}
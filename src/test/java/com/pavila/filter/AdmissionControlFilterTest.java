@@ -0,0 +1,65 @@
+package com.pavila.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.pavila.admission.AdaptiveConcurrencyLimiter;
+import com.pavila.admission.TokenBucketRateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AdmissionControlFilterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Test
+    void shedsOnceTheConcurrencyLimitIsReached() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = fullLimiter();
+        AdmissionControlFilter filter = new AdmissionControlFilter(null, limiter, objectMapper, new SimpleMeterRegistry());
+
+        MockHttpServletResponse response = perform(filter, "/api/v1/products");
+
+        assertThat(response.getStatus()).isEqualTo(503);
+        assertThat(response.getHeader("Retry-After")).isEqualTo("1");
+    }
+
+    @Test
+    void exportAndImportsBypassTheConcurrencyLimit() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = fullLimiter();
+        AdmissionControlFilter filter = new AdmissionControlFilter(null, limiter, objectMapper, new SimpleMeterRegistry());
+
+        assertThat(perform(filter, "/api/v1/products/export").getStatus()).isEqualTo(200);
+        assertThat(perform(filter, "/api/v1/products/imports").getStatus()).isEqualTo(200);
+        assertThat(limiter.getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    void rateLimitedRequestsGetRetryAfter() throws Exception {
+        AdmissionControlFilter filter = new AdmissionControlFilter(new TokenBucketRateLimiter(1, 1, 100), null,
+                objectMapper, new SimpleMeterRegistry());
+
+        assertThat(perform(filter, "/api/v1/products").getStatus()).isEqualTo(200);
+        MockHttpServletResponse rejected = perform(filter, "/api/v1/products");
+        assertThat(rejected.getStatus()).isEqualTo(429);
+        assertThat(rejected.getHeader("Retry-After")).isEqualTo("1");
+    }
+
+    private AdaptiveConcurrencyLimiter fullLimiter() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(4, 4, 4, 500, 0.9);
+        for (int i = 0; i < 4; i++) {
+            limiter.tryAcquire();
+        }
+        return limiter;
+    }
+
+    private MockHttpServletResponse perform(AdmissionControlFilter filter, String uri) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response;
+    }
+}
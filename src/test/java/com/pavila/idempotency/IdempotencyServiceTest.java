@@ -0,0 +1,153 @@
+package com.pavila.idempotency;
+
+import com.pavila.event.ProductChangedEvent;
+import com.pavila.model.dto.ProductDTORequest;
+import com.pavila.model.dto.ProductDTOResponse;
+import com.pavila.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "product.idempotency.wait-timeout-ms=1000")
+@ActiveProfiles("embedded")
+@AutoConfigureMockMvc
+@RecordApplicationEvents
+class IdempotencyServiceTest {
+
+    private static final String BODY = "{\"name\": \"Idempotent product\", \"price\": 12.5}";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @Test
+    void replayReturnsTheStoredCreatedResponseWithoutASecondInsert() throws Exception {
+        String key = UUID.randomUUID().toString();
+
+        String first = mockMvc.perform(create(key, BODY))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "false"))
+                .andReturn().getResponse().getContentAsString();
+        String replayed = mockMvc.perform(create(key, BODY))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andReturn().getResponse().getContentAsString();
+
+        assertThat(replayed).isEqualTo(first);
+        assertThat(events.stream(ProductChangedEvent.class)
+                .filter(event -> event.getType() == ProductChangedEvent.Type.CREATED)).hasSize(1);
+    }
+
+    @Test
+    void sameKeyWithDifferentBodyReturnsUnprocessableEntity() throws Exception {
+        String key = UUID.randomUUID().toString();
+        mockMvc.perform(create(key, BODY)).andExpect(status().isCreated());
+
+        mockMvc.perform(create(key, "{\"name\": \"Another product\", \"price\": 12.5}"))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.backend_message")
+                        .value("The Idempotency-Key " + key + " was already used with a different request"));
+    }
+
+    @Test
+    void concurrentDuplicatesCollapseIntoOneCreate() throws Exception {
+        String key = UUID.randomUUID().toString();
+        AtomicInteger creates = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Supplier<ProductDTOResponse> action = () -> {
+            creates.incrementAndGet();
+            started.countDown();
+            await(release);
+            return productService.save(request());
+        };
+
+        CompletableFuture<IdempotencyService.Result> first =
+                CompletableFuture.supplyAsync(() -> idempotencyService.execute(key, request(), action));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<IdempotencyService.Result> second =
+                CompletableFuture.supplyAsync(() -> idempotencyService.execute(key, request(), action));
+        release.countDown();
+
+        IdempotencyService.Result created = first.get(5, TimeUnit.SECONDS);
+        IdempotencyService.Result duplicate = second.get(5, TimeUnit.SECONDS);
+        assertThat(creates).hasValue(1);
+        assertThat(created.replayed()).isFalse();
+        assertThat(duplicate.replayed()).isTrue();
+        assertThat(duplicate.product()).isEqualTo(created.product());
+    }
+
+    @Test
+    void duplicateThatOutwaitsTheTimeoutReturnsConflict() throws Exception {
+        String key = UUID.randomUUID().toString();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<IdempotencyService.Result> first = CompletableFuture.supplyAsync(() ->
+                idempotencyService.execute(key, request(), () -> {
+                    started.countDown();
+                    await(release);
+                    return productService.save(request());
+                }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        try {
+            mockMvc.perform(create(key, BODY))
+                    .andExpect(status().isConflict())
+                    .andExpect(jsonPath("$.backend_message")
+                            .value("A request with Idempotency-Key " + key + " is still in progress"));
+        } finally {
+            release.countDown();
+        }
+        assertThat(first.get(5, TimeUnit.SECONDS).replayed()).isFalse();
+    }
+
+    private static org.springframework.test.web.servlet.RequestBuilder create(String key, String body) {
+        return post("/api/v1/products")
+                .header("Idempotency-Key", key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body);
+    }
+
+    private static ProductDTORequest request() {
+        return ProductDTORequest.builder()
+                .name("Idempotent product")
+                .price(new BigDecimal("12.5"))
+                .build();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
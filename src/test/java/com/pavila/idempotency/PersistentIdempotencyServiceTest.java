@@ -0,0 +1,112 @@
+package com.pavila.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pavila.model.dto.ProductDTORequest;
+import com.pavila.model.dto.ProductDTOResponse;
+import com.pavila.service.ProductService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.security.MessageDigest;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Keys are stored on the primary only: the embedded replica of the replicas profile never receives them, like a
+// replica that has not caught up yet
+@SpringBootTest(properties = "product.idempotency.persistence.enabled=true")
+@ActiveProfiles({ "embedded", "replicas" })
+class PersistentIdempotencyServiceTest {
+
+    private static final long WINNER_PRODUCT_ID = 2_000_000L;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private HikariDataSource primaryDataSource;
+
+    private JdbcTemplate primary;
+
+    @BeforeEach
+    void setUp() {
+        primary = new JdbcTemplate(primaryDataSource);
+    }
+
+    @Test
+    void keyStoredOnlyOnThePrimaryIsReplayed() throws Exception {
+        String key = UUID.randomUUID().toString();
+        ProductDTORequest request = request("Stored on the primary");
+        storeOnPrimary(key, request);
+        AtomicInteger creates = new AtomicInteger();
+
+        IdempotencyService.Result result = idempotencyService.execute(key, request, () -> {
+            creates.incrementAndGet();
+            return productService.save(request);
+        });
+
+        assertThat(result.replayed()).isTrue();
+        assertThat(result.product().getId()).isEqualTo(WINNER_PRODUCT_ID);
+        assertThat(creates).hasValue(0);
+    }
+
+    @Test
+    void keyStoredByAnotherInstanceWhileCreatingReplaysItsProduct() throws Exception {
+        String key = UUID.randomUUID().toString();
+        ProductDTORequest request = request("Lost the race");
+
+        // The other instance commits its key after the stored key was looked up and before ours is inserted
+        IdempotencyService.Result result = idempotencyService.execute(key, request, () -> {
+            storeOnPrimary(key, request);
+            return productService.save(request);
+        });
+
+        assertThat(result.replayed()).isTrue();
+        assertThat(result.product().getId()).isEqualTo(WINNER_PRODUCT_ID);
+        assertThat(primary.queryForList("select id from products where name = 'Lost the race'", Long.class)).isEmpty();
+    }
+
+    private void storeOnPrimary(String key, ProductDTORequest request) {
+        try {
+            ProductDTOResponse winner = ProductDTOResponse.builder()
+                    .id(WINNER_PRODUCT_ID)
+                    .name(request.getName())
+                    .price(request.getPrice())
+                    .available(true)
+                    .version(0L)
+                    .build();
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request));
+            primary.update("insert into idempotency_keys (idempotency_key, request_hash, response, created_date) " +
+                            "values (?, ?, ?, ?)",
+                    key, HexFormat.of().formatHex(digest), objectMapper.writeValueAsString(winner),
+                    Timestamp.valueOf(LocalDateTime.now()));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static ProductDTORequest request(String name) {
+        return ProductDTORequest.builder()
+                .name(name)
+                .price(new BigDecimal("7.5"))
+                .build();
+    }
+}
@@ -0,0 +1,103 @@
+package com.pavila.importer;
+
+import com.pavila.exception.InvalidRequestException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductImportReaderTest {
+
+    @Test
+    void csvQuotedFieldsKeepCommasAndDoubledQuotes() throws IOException {
+        ProductImportReader reader = csv("""
+                name,price,available
+                "Monitor 27"", 4K",199.90,true
+                """);
+
+        ProductImportReader.Row row = reader.next();
+
+        assertThat(row.errors()).isEmpty();
+        assertThat(row.product().getName()).isEqualTo("Monitor 27\", 4K");
+        assertThat(row.product().getPrice()).isEqualByComparingTo(new BigDecimal("199.90"));
+        assertThat(row.available()).isTrue();
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    void csvHeaderMayStartWithByteOrderMark() throws IOException {
+        ProductImportReader reader = csv("﻿id,name,price\n7,Keyboard,25\n");
+
+        ProductImportReader.Row row = reader.next();
+
+        assertThat(row.errors()).isEmpty();
+        assertThat(row.id()).isEqualTo(7L);
+        assertThat(row.product().getName()).isEqualTo("Keyboard");
+    }
+
+    @Test
+    void csvRowWithMissingColumnIsInvalid() throws IOException {
+        ProductImportReader reader = csv("""
+                name,price,available
+                Mouse,10
+                Mouse,10,false
+                """);
+
+        ProductImportReader.Row invalid = reader.next();
+        ProductImportReader.Row valid = reader.next();
+
+        assertThat(invalid.line()).isEqualTo(2);
+        assertThat(invalid.errors()).containsExactly("Expected 3 columns but found 2");
+        assertThat(valid.line()).isEqualTo(3);
+        assertThat(valid.errors()).isEmpty();
+        assertThat(valid.available()).isFalse();
+    }
+
+    @Test
+    void csvHeaderWithoutRequiredColumnIsRejected() {
+        assertThatThrownBy(() -> csv("id,name\n1,Mouse\n"))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessage("The CSV header must contain the name and price columns");
+    }
+
+    @Test
+    void csvAvailableIsNullWhenTheColumnOrValueIsMissing() throws IOException {
+        assertThat(csv("name,price\nMouse,10\n").next().available()).isNull();
+        assertThat(csv("name,price,available\nMouse,10,\n").next().available()).isNull();
+    }
+
+    @Test
+    void ndjsonAvailableIsNullWhenAbsent() throws IOException {
+        ProductImportReader reader = ndjson("""
+                {"id": 3, "name": "Mouse", "price": 10}
+                {"name": "Cable", "price": 5, "available": false}
+                {"name": "Hub", "price": 20, "available": "no"}
+                """);
+
+        ProductImportReader.Row absent = reader.next();
+        ProductImportReader.Row explicit = reader.next();
+        ProductImportReader.Row invalid = reader.next();
+
+        assertThat(absent.errors()).isEmpty();
+        assertThat(absent.id()).isEqualTo(3L);
+        assertThat(absent.available()).isNull();
+        assertThat(explicit.id()).isNull();
+        assertThat(explicit.available()).isFalse();
+        assertThat(invalid.errors()).containsExactly("available: \"no\" must be true or false");
+    }
+
+    private static ProductImportReader csv(String text) throws IOException {
+        return ProductImportReader.csv(new BufferedReader(new StringReader(text)));
+    }
+
+    private static ProductImportReader ndjson(String text) {
+        return ProductImportReader.ndjson(new BufferedReader(new StringReader(text)),
+                Jackson2ObjectMapperBuilder.json().build());
+    }
+}
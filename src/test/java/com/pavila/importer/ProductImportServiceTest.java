@@ -0,0 +1,147 @@
+package com.pavila.importer;
+
+import com.pavila.event.ProductChangedEvent;
+import com.pavila.model.dto.ProductAvailabilityDTORequest;
+import com.pavila.model.dto.ProductDTORequest;
+import com.pavila.model.dto.ProductDTOResponse;
+import com.pavila.model.dto.ProductImportJobDTOResponse;
+import com.pavila.service.ProductService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("embedded")
+@RecordApplicationEvents
+class ProductImportServiceTest {
+
+    private static final long MISSING_ID = 999_999L;
+    private static final MediaType TEXT_CSV = MediaType.parseMediaType(ProductImportService.TEXT_CSV_VALUE);
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @Test
+    void rowWithMissingIdFailsAndTheRestOfTheChunkIsWritten() {
+        ProductDTOResponse product = save("Import missing");
+
+        ProductImportJobDTOResponse job = importCsv("""
+                id,name,price
+                %d,Import missing renamed,12
+                %d,Import ghost,12
+                """.formatted(product.getId(), MISSING_ID));
+
+        assertThat(job.getStatus()).isEqualTo(ProductImportJobDTOResponse.Status.COMPLETED);
+        assertThat(job.getUpdated()).isEqualTo(1);
+        assertThat(job.getFailed()).isEqualTo(1);
+        assertThat(job.getErrors()).singleElement().satisfies(error -> {
+            assertThat(error.getLine()).isEqualTo(3);
+            assertThat(error.getErrors()).containsExactly("Product not found by id " + MISSING_ID);
+        });
+        assertThat(productService.findById(product.getId()).getName()).isEqualTo("Import missing renamed");
+    }
+
+    @Test
+    void duplicateIdsInOneChunkCountAsOneUpdate() {
+        ProductDTOResponse product = save("Import duplicate");
+        events.clear();
+
+        ProductImportJobDTOResponse job = importCsv("""
+                id,name,price
+                %1$d,Import duplicate first,12
+                %1$d,Import duplicate last,13
+                """.formatted(product.getId()));
+
+        assertThat(job.getProcessed()).isEqualTo(2);
+        assertThat(job.getUpdated()).isEqualTo(1);
+        assertThat(job.getFailed()).isZero();
+        assertThat(events.stream(ProductChangedEvent.class))
+                .containsExactly(ProductChangedEvent.updated(product.getId(), "Import duplicate last"));
+        ProductDTOResponse stored = productService.findById(product.getId());
+        assertThat(stored.getName()).isEqualTo("Import duplicate last");
+        assertThat(stored.getPrice()).isEqualByComparingTo(new BigDecimal("13"));
+    }
+
+    @Test
+    void updateWithoutAvailableKeepsTheStoredValue() {
+        ProductDTOResponse product = save("Import keep availability");
+        productService.updateAvailability(new ProductAvailabilityDTORequest(List.of(product.getId()), false));
+
+        importCsv("""
+                id,name,price
+                %d,Import keep availability,12
+                """.formatted(product.getId()));
+        importNdjson("""
+                {"id": %d, "name": "Import keep availability", "price": 14}
+                """.formatted(product.getId()));
+
+        ProductDTOResponse stored = productService.findById(product.getId());
+        assertThat(stored.getPrice()).isEqualByComparingTo(new BigDecimal("14"));
+        assertThat(stored.getAvailable()).isFalse();
+    }
+
+    @Test
+    void insertHonoursExplicitAvailability() {
+        ProductImportJobDTOResponse csv = importCsv("""
+                name,price,available
+                Import csv unavailable,12,false
+                Import csv default,12,
+                """);
+        ProductImportJobDTOResponse ndjson = importNdjson("""
+                {"name": "Import ndjson unavailable", "price": 12, "available": false}
+                {"name": "Import ndjson default", "price": 12}
+                """);
+
+        assertThat(csv.getCreated()).isEqualTo(2);
+        assertThat(ndjson.getCreated()).isEqualTo(2);
+        assertThat(availability("Import csv unavailable")).isFalse();
+        assertThat(availability("Import csv default")).isTrue();
+        assertThat(availability("Import ndjson unavailable")).isFalse();
+        assertThat(availability("Import ndjson default")).isTrue();
+    }
+
+    private ProductImportJobDTOResponse importCsv(String text) {
+        return productImportService.importProducts(
+                new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), TEXT_CSV);
+    }
+
+    private ProductImportJobDTOResponse importNdjson(String text) {
+        return productImportService.importProducts(
+                new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)), MediaType.APPLICATION_NDJSON);
+    }
+
+    private ProductDTOResponse save(String name) {
+        return productService.save(ProductDTORequest.builder()
+                .name(name)
+                .price(new BigDecimal("10.00"))
+                .available(true)
+                .build());
+    }
+
+    // Finds the product created by the import through its creation event
+    private boolean availability(String name) {
+        Long productId = events.stream(ProductChangedEvent.class)
+                .filter(event -> event.getType() == ProductChangedEvent.Type.CREATED && name.equals(event.getName()))
+                .map(ProductChangedEvent::getProductId)
+                .findFirst()
+                .orElseThrow();
+        return productService.findById(productId).getAvailable();
+    }
+}
@@ -0,0 +1,64 @@
+package com.pavila.repository;
+
+import com.pavila.model.entity.Product;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("embedded")
+class ProductIdSequenceInitializerTest {
+
+    private static final long EXISTING_ID = 900_000L;
+
+    @Autowired
+    private ProductIdSequenceInitializer initializer;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void tearDown() {
+        execute("delete from products where id = " + EXISTING_ID);
+    }
+
+    @Test
+    void sequenceBehindExistingRowsIsRaisedAboveThem() {
+        execute("insert into products (id, name, price, available, version, created_date) "
+                + "values (" + EXISTING_ID + ", 'Existing', 10, true, 0, current_timestamp)");
+        execute("update product_id_sequence set next_val = 1 where sequence_name = 'products'");
+
+        initializer.initialize();
+
+        assertThat(nextVal()).isEqualTo(EXISTING_ID + Product.ID_ALLOCATION_SIZE + 1);
+    }
+
+    @Test
+    void sequenceAheadOfExistingRowsIsLeftAlone() {
+        long ahead = nextVal() + 1_000;
+        execute("update product_id_sequence set next_val = " + ahead + " where sequence_name = 'products'");
+
+        initializer.initialize();
+
+        assertThat(nextVal()).isEqualTo(ahead);
+    }
+
+    private void execute(String sql) {
+        transactionTemplate.executeWithoutResult(status -> entityManager.createNativeQuery(sql).executeUpdate());
+    }
+
+    private long nextVal() {
+        return transactionTemplate.execute(status -> ((Number) entityManager
+                .createNativeQuery("select next_val from product_id_sequence where sequence_name = 'products'")
+                .getSingleResult()).longValue());
+    }
+}
@@ -0,0 +1,82 @@
+package com.pavila.repository;
+
+import com.pavila.model.dto.ProductDTOResponse;
+import com.pavila.model.entity.Product;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("embedded")
+class ProductRepositoryImplTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        product = productRepository.save(Product.builder().name("Query cache").price(BigDecimal.ONE).build());
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void unlimitedListIsNotCached() {
+        productRepository.findAllProjected(null, Sort.by("id"), Limit.unlimited());
+        productRepository.findAllProjected(null, Sort.by("id"), Limit.unlimited(), Set.of("id", "name"));
+
+        assertThat(statistics.getQueryCachePutCount()).isZero();
+        assertThat(statistics.getQueryCacheMissCount()).isZero();
+    }
+
+    @Test
+    void boundedPagesAreCached() {
+        List<ProductDTOResponse> first = productRepository.findAllProjected(null, Sort.by("id"), Limit.of(101));
+        List<ProductDTOResponse> second = productRepository.findAllProjected(null, Sort.by("id"), Limit.of(101));
+
+        assertThat(second).isEqualTo(first);
+        assertThat(statistics.getQueryCachePutCount()).isEqualTo(1);
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void largeLimitsAreNotCached() {
+        productRepository.findAllProjected(null, Sort.by("id"), Limit.of(1000));
+
+        assertThat(statistics.getQueryCachePutCount()).isZero();
+    }
+
+    @Test
+    void sparseProjectionReadsOnlyTheSelectedAttributes() {
+        List<ProductDTOResponse> products = productRepository.findAllProjected(
+                ProductSpecifications.idEquals(product.getId()), Sort.unsorted(), Limit.of(1), Set.of("id", "name"));
+
+        assertThat(products).singleElement().satisfies(projected -> {
+            assertThat(projected.getId()).isEqualTo(product.getId());
+            assertThat(projected.getName()).isEqualTo("Query cache");
+            assertThat(projected.getPrice()).isNull();
+            assertThat(projected.getAvailable()).isNull();
+            assertThat(projected.getCreatedDate()).isNull();
+            assertThat(projected.getVersion()).isNull();
+        });
+    }
+}
@@ -0,0 +1,106 @@
+package com.pavila.search;
+
+import com.pavila.event.ProductChangedEvent;
+import com.pavila.model.dto.ProductSearchHitDTOResponse;
+import com.pavila.repository.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.mock;
+
+class ProductSearchIndexTest {
+
+    private ProductSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ProductSearchIndex(mock(ProductRepository.class));
+    }
+
+    @Test
+    void ranksPrefixMatchesBeforeWordMatchesBeforeInnerMatches() {
+        index.index(1L, "FundaMacBook");
+        index.index(2L, "MacBook Air");
+        index.index(3L, "Funda MacBook");
+
+        assertThat(index.search("macbook"))
+                .extracting(ProductSearchHitDTOResponse::getId)
+                .containsExactly(2L, 3L, 1L);
+    }
+
+    @Test
+    void scoresTheMatchedGramRatioPlusThePositionBonus() {
+        index.index(1L, "MacBook Air");
+        index.index(2L, "Funda MacBook");
+
+        assertThat(index.search("macbook"))
+                .extracting(ProductSearchHitDTOResponse::getId, ProductSearchHitDTOResponse::getScore)
+                .containsExactly(
+                        tuple(1L, 2.0),
+                        tuple(2L, 1.5));
+    }
+
+    @Test
+    void scoresInnerMatchesByTheRatioOfMatchedGrams() {
+        index.index(1L, "FundaMacBook");
+
+        // 5 of the 7 query grams match and there is no word-start bonus
+        assertThat(index.search("macbook"))
+                .extracting(ProductSearchHitDTOResponse::getScore)
+                .containsExactly(0.714);
+    }
+
+    @Test
+    void breaksScoreTiesByShorterNameThenId() {
+        index.index(3L, "Mouse inalámbrico");
+        index.index(2L, "Mouse");
+        index.index(1L, "Mouse pad");
+        index.index(4L, "Mouse gamer");
+
+        assertThat(index.search("mouse"))
+                .extracting(ProductSearchHitDTOResponse::getId)
+                .containsExactly(2L, 1L, 4L, 3L);
+    }
+
+    @Test
+    void toleratesTyposAndIgnoresCaseAndAccents() {
+        index.index(1L, "Cámara Réflex");
+        index.index(2L, "Teclado");
+
+        assertThat(index.search("CAMARA")).extracting(ProductSearchHitDTOResponse::getId).containsExactly(1L);
+        assertThat(index.search("reflx")).extracting(ProductSearchHitDTOResponse::getId).containsExactly(1L);
+        assertThat(index.search("zzzz")).isEmpty();
+        assertThat(index.search("  ")).isEmpty();
+    }
+
+    @Test
+    void followsInsertUpdateAndDeleteEvents() {
+        index.onProductChanged(ProductChangedEvent.created(1L, "Monitor curvo"));
+        assertThat(index.search("monitor")).extracting(ProductSearchHitDTOResponse::getId).containsExactly(1L);
+
+        index.onProductChanged(ProductChangedEvent.updated(1L, "Televisor curvo"));
+        assertThat(index.search("monitor")).isEmpty();
+        assertThat(index.search("televisor")).extracting(ProductSearchHitDTOResponse::getId).containsExactly(1L);
+        assertThat(index.size()).isEqualTo(1);
+
+        index.onProductChanged(ProductChangedEvent.availabilityChanged(1L));
+        assertThat(index.search("televisor")).extracting(ProductSearchHitDTOResponse::getName).containsExactly("Televisor curvo");
+
+        index.onProductChanged(ProductChangedEvent.deleted(1L));
+        assertThat(index.search("curvo")).isEmpty();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void removingAProductKeepsTheGramsOfOthers() {
+        index.index(1L, "Silla gamer");
+        index.index(2L, "Silla de oficina");
+
+        index.remove(1L);
+
+        assertThat(index.search("silla")).extracting(ProductSearchHitDTOResponse::getId).containsExactly(2L);
+        assertThat(index.search("gamer")).isEmpty();
+    }
+}
@@ -0,0 +1,34 @@
+package com.pavila.service;
+
+import com.pavila.exception.InvalidRequestException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProductCursorTest {
+
+    @ParameterizedTest
+    @ValueSource(longs = { 0L, 1L, 4L, 120L, Long.MAX_VALUE })
+    void decodesWhatItEncodes(long productId) {
+        String cursor = ProductCursor.encode(productId);
+
+        assertThat(cursor).doesNotContain("=", "+", "/");
+        assertThat(ProductCursor.decode(cursor)).isEqualTo(productId);
+    }
+
+    @Test
+    void encodesTheIdWithAPrefix() {
+        assertThat(ProductCursor.encode(4L)).isEqualTo("aWQ6NA");
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = { "zzz", "!!!", "aWQ6", "aWQ6YWJj", "NA" })
+    void rejectsMalformedCursors(String cursor) {
+        assertThatThrownBy(() -> ProductCursor.decode(cursor))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessage("Invalid cursor " + cursor);
+    }
+}
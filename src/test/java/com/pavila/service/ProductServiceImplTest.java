@@ -0,0 +1,221 @@
+package com.pavila.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.pavila.config.CacheConfig;
+import com.pavila.event.ProductChangedEvent;
+import com.pavila.exception.InvalidRequestException;
+import com.pavila.exception.ObjectNotFoundException;
+import com.pavila.exception.PreconditionFailedException;
+import com.pavila.model.dto.BulkOperationDTOResponse;
+import com.pavila.model.dto.ProductAvailabilityDTORequest;
+import com.pavila.model.dto.ProductDTORequest;
+import com.pavila.model.dto.ProductDTOResponse;
+import com.pavila.model.dto.ProductIdsDTORequest;
+import com.pavila.model.dto.ProductSearchHitDTOResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+
+@SpringBootTest
+@ActiveProfiles("embedded")
+@RecordApplicationEvents
+class ProductServiceImplTest {
+
+    private static final long MISSING_ID = 999_999L;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void bulkAvailabilityPublishesEventsOnlyForExistingProducts() {
+        ProductDTOResponse product = save("Availability");
+        events.clear();
+
+        BulkOperationDTOResponse response = productService.updateAvailability(
+                new ProductAvailabilityDTORequest(List.of(product.getId(), MISSING_ID), false));
+
+        assertThat(response.getRequested()).isEqualTo(2);
+        assertThat(response.getAffected()).isEqualTo(1);
+        assertThat(publishedChanges()).containsExactly(ProductChangedEvent.availabilityChanged(product.getId()));
+    }
+
+    @Test
+    void bulkAvailabilityOfMissingProductsPublishesNothing() {
+        BulkOperationDTOResponse response = productService.updateAvailability(
+                new ProductAvailabilityDTORequest(List.of(MISSING_ID), true));
+
+        assertThat(response.getAffected()).isZero();
+        assertThat(publishedChanges()).isEmpty();
+    }
+
+    @Test
+    void bulkDeletePublishesEventsOnlyForDeletedProducts() {
+        ProductDTOResponse first = save("Delete 1");
+        ProductDTOResponse second = save("Delete 2");
+        events.clear();
+
+        BulkOperationDTOResponse response = productService.deleteAll(
+                new ProductIdsDTORequest(List.of(first.getId(), MISSING_ID, second.getId(), first.getId())));
+
+        assertThat(response.getRequested()).isEqualTo(3);
+        assertThat(response.getAffected()).isEqualTo(2);
+        assertThat(publishedChanges()).containsExactlyInAnyOrder(
+                ProductChangedEvent.deleted(first.getId()), ProductChangedEvent.deleted(second.getId()));
+    }
+
+    @Test
+    void searchIndexFollowsCommittedWrites() {
+        ProductDTOResponse product = save("Proyector portátil");
+        assertThat(searchIds("proyector")).containsExactly(product.getId());
+
+        productService.update(ProductDTORequest.builder().name("Altavoz portátil").price(BigDecimal.ONE).build(),
+                product.getId(), null);
+        assertThat(searchIds("proyector")).isEmpty();
+        assertThat(searchIds("altavoz")).containsExactly(product.getId());
+
+        productService.delete(product.getId());
+        assertThat(searchIds("altavoz")).isEmpty();
+    }
+
+    @Test
+    void updateWithStaleVersionIsRejected() {
+        ProductDTOResponse product = save("Stale update");
+        productService.updateAvailableProduct(product.getId());
+
+        assertThatThrownBy(() -> productService.update(
+                ProductDTORequest.builder().name("Lost update").price(BigDecimal.ONE).build(),
+                product.getId(), product.getVersion()))
+                .isInstanceOf(PreconditionFailedException.class)
+                .hasMessage("Product " + product.getId() + " is at version " + (product.getVersion() + 1)
+                        + " but version " + product.getVersion() + " was expected");
+        assertThat(productService.findById(product.getId()).getName()).isEqualTo("Stale update");
+    }
+
+    @Test
+    void patchWithStaleVersionIsRejected() {
+        ProductDTOResponse product = save("Stale patch");
+        productService.updateAvailableProduct(product.getId());
+
+        assertThatThrownBy(() -> productService.patch(product.getId(), mergePatch("{\"price\": 2}"), product.getVersion()))
+                .isInstanceOf(PreconditionFailedException.class);
+        assertThat(productService.findById(product.getId()).getPrice()).isEqualByComparingTo(BigDecimal.TEN);
+    }
+
+    @Test
+    void patchWithCurrentVersionAppliesOnlyThePresentMembers() {
+        ProductDTOResponse product = save("Current patch");
+
+        ProductDTOResponse patched = productService.patch(product.getId(), mergePatch("{\"price\": 2}"), product.getVersion());
+
+        assertThat(patched.getName()).isEqualTo("Current patch");
+        assertThat(patched.getPrice()).isEqualByComparingTo(BigDecimal.valueOf(2));
+        assertThat(patched.getVersion()).isEqualTo(product.getVersion() + 1);
+    }
+
+    @Test
+    void patchWithNullMemberIsRejected() {
+        ProductDTOResponse product = save("Null patch");
+
+        assertThatThrownBy(() -> productService.patch(product.getId(), mergePatch("{\"price\": null}"), null))
+                .isInstanceOf(InvalidRequestException.class);
+    }
+
+    @Test
+    void updateEvictsTheCachedProduct() {
+        ProductDTOResponse product = save("Cached update");
+        productService.findById(product.getId());
+        assertThat(cachedProduct(product.getId())).isNotNull();
+
+        productService.update(ProductDTORequest.builder().name("Cached update renamed").price(BigDecimal.ONE).build(),
+                product.getId(), null);
+
+        assertThat(cachedProduct(product.getId())).isNull();
+        assertThat(productService.findById(product.getId()).getName()).isEqualTo("Cached update renamed");
+    }
+
+    @Test
+    void deleteEvictsTheCachedProduct() {
+        ProductDTOResponse product = save("Cached delete");
+        productService.findById(product.getId());
+
+        productService.delete(product.getId());
+
+        assertThat(cachedProduct(product.getId())).isNull();
+        assertThatThrownBy(() -> productService.findById(product.getId())).isInstanceOf(ObjectNotFoundException.class);
+    }
+
+    @Test
+    void staleProductPutBackAfterAnUpdateIsEvictedAgain() {
+        ProductDTOResponse product = save("Cached stale");
+        productService.update(ProductDTORequest.builder().name("Cached fresh").price(BigDecimal.ONE).build(),
+                product.getId(), null);
+
+        // A reader that loaded the row before the update committed puts it back after the first eviction
+        cacheManager.getCache(CacheConfig.PRODUCTS_CACHE).put(product.getId(), product);
+        assertThat(cachedProduct(product.getId())).isNotNull();
+
+        await().atMost(Duration.ofSeconds(5)).until(() -> cachedProduct(product.getId()) == null);
+        assertThat(productService.findById(product.getId()).getName()).isEqualTo("Cached fresh");
+    }
+
+    @Test
+    void productsCacheStatisticsArePublished() {
+        assertThat(meterRegistry.find("cache.gets").tag("cache", CacheConfig.PRODUCTS_CACHE).meters()).isNotEmpty();
+    }
+
+    private JsonNode mergePatch(String json) {
+        try {
+            return objectMapper.readTree(json);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private ProductDTOResponse cachedProduct(Long productId) {
+        return cacheManager.getCache(CacheConfig.PRODUCTS_CACHE).get(productId, ProductDTOResponse.class);
+    }
+
+    private List<Long> searchIds(String query) {
+        return productService.search(query, 0, 10).getItems().stream()
+                .map(ProductSearchHitDTOResponse::getId)
+                .toList();
+    }
+
+    private ProductDTOResponse save(String name) {
+        return productService.save(ProductDTORequest.builder()
+                .name(name)
+                .price(BigDecimal.TEN)
+                .build());
+    }
+
+    private List<ProductChangedEvent> publishedChanges() {
+        return events.stream(ProductChangedEvent.class).toList();
+    }
+}
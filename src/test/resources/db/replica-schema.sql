@@ -0,0 +1,17 @@
+-- Schema of the embedded read replica of the replicas profile. H2 does not replicate, so the replica only has
+-- the rows inserted into it directly, which makes it visible whether a read was routed to it or to the primary.
+CREATE TABLE IF NOT EXISTS products (
+    id BIGINT NOT NULL PRIMARY KEY,
+    name VARCHAR(255),
+    price NUMERIC(38, 2),
+    available BOOLEAN NOT NULL,
+    version BIGINT NOT NULL,
+    created_date TIMESTAMP(6) NOT NULL,
+    last_modified_date TIMESTAMP(6)
+);
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    idempotency_key VARCHAR(255) NOT NULL PRIMARY KEY,
+    request_hash VARCHAR(64) NOT NULL,
+    response CLOB NOT NULL,
+    created_date TIMESTAMP(6) NOT NULL
+);